@@ -1,4 +1,5 @@
 import com.github.sormuras.bach.ProjectInfo;
+import com.github.sormuras.bach.ProjectInfo.External;
 import com.github.sormuras.bach.ProjectInfo.Externals;
 import com.github.sormuras.bach.ProjectInfo.Tools;
 import com.github.sormuras.bach.ProjectInfo.Tweak;
@@ -9,6 +10,12 @@ import com.github.sormuras.bach.ProjectInfo.Tweak;
         compileModulesForJavaRelease = 8,
         includeSourceFilesIntoModules = true,
         lookupExternals = @Externals(name = Externals.Name.JUNIT, version = "5.8.0-M1"),
+        lookupExternal = {
+                @External(module = "jmh.core", via = "org.openjdk.jmh:jmh-core:1.29"),
+                @External(module = "jmh.generator.annprocess", via = "org.openjdk.jmh:jmh-generator-annprocess:1.29"),
+                @External(module = "jopt.simple", via = "net.sf.jopt-simple:jopt-simple:4.6"),
+                @External(module = "commons.math3", via = "org.apache.commons:commons-math3:3.2")
+        },
         tools = @Tools(skip = {"jdeps", "jlink"}),
         tweaks = {
                 @Tweak(tool = "javac", option = "-g", value = {"-encoding", "UTF-8", "-parameters"}),
@@ -34,6 +41,10 @@ import com.github.sormuras.bach.ProjectInfo.Tweak;
                                 "--config=junit.jupiter.execution.parallel.enabled=true",
                                 "--config=junit.jupiter.execution.parallel.mode.default=concurrent"
                         })
+        },
+        testTweaks = {
+                // test.benchmark: JMH generates the benchmark harness
+                @Tweak(tool = "javac", option = "--processor-module-path", value = ".bach/external-modules")
         })
 module bach.info {
     requires com.github.sormuras.bach;
@@ -11,13 +11,13 @@ import se.jbee.lang.Type;
 import se.jbee.lang.Typed;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Iterator;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
 
 import static java.util.Arrays.asList;
 import static se.jbee.inject.Instance.defaultInstanceOf;
 import static se.jbee.lang.Type.raw;
-import static se.jbee.lang.Utils.*;
 
 /**
  * Describes what is wanted/needed as parameter to construct a instance of T.
@@ -28,35 +28,33 @@ import static se.jbee.lang.Utils.*;
 public final class Dependency<T>
 		implements Typed<T>, Iterable<Injection>, Serializable {
 
-	/**
-	 * A empty {@link Injection} hierarchy. It is used whenever the
-	 * {@link Dependency} does not depend on the actual hierarchy. This is the
-	 * default.
-	 */
-	private static final Injection[] NO_TARGET = new Injection[0];
-
 	public static <T> Dependency<T> dependency(Class<T> type) {
 		return dependency(raw(type));
 	}
 
 	public static <T> Dependency<T> dependency(Type<T> type) {
-		return dependency(Instance.instance(Name.ANY, type), NO_TARGET);
+		return dependency(Instance.instance(Name.ANY, type), null);
 	}
 
 	public static <T> Dependency<T> dependency(Instance<T> instance) {
-		return dependency(instance, NO_TARGET);
+		return dependency(instance, null);
 	}
 
 	private static <T> Dependency<T> dependency(Instance<T> instance,
-			Injection[] hierarchy) {
+			Frame hierarchy) {
 		return new Dependency<>(null, instance, hierarchy);
 	}
 
 	private final transient InjectionPoint at;
-	private final Injection[] hierarchy;
+	/**
+	 * The top (most recent) {@link Injection} of the hierarchy or {@code null}
+	 * for the empty hierarchy. It is used whenever the {@link Dependency} does
+	 * not depend on the actual hierarchy. This is the default.
+	 */
+	private final Frame hierarchy;
 	public final Instance<T> instance;
 
-	private Dependency(InjectionPoint at, Instance<T> instance, Injection... hierarchy) {
+	private Dependency(InjectionPoint at, Instance<T> instance, Frame hierarchy) {
 		this.at = at;
 		this.instance = instance;
 		this.hierarchy = hierarchy;
@@ -69,21 +67,21 @@ public final class Dependency<T>
 
 	@Override
 	public int hashCode() {
-		return instance.hashCode() ^ Arrays.hashCode(hierarchy);
+		return instance.hashCode() ^ (hierarchy == null ? 1 : hierarchy.hash);
 	}
 
 	public boolean equalTo(Dependency<?> other) {
 		// cheapest first...
 		return instance.equalTo(other.instance)
-			&& arrayEquals(hierarchy, other.hierarchy, Injection::equalTo);
+			&& Frame.equalTo(hierarchy, other.hierarchy);
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder b = new StringBuilder();
 		b.append(instance);
-		for (int i = hierarchy.length - 1; i >= 0; i--)
-			b.append(" <= ").append(hierarchy[i].target);
+		for (Frame f = hierarchy; f != null; f = f.parent)
+			b.append(" <= ").append(f.injection.target);
 		return b.toString();
 	}
 
@@ -122,18 +120,17 @@ public final class Dependency<T>
 	}
 
 	public Dependency<T> simple() {
-		return dependency(instance, NO_TARGET);
+		return dependency(instance, null);
 	}
 
 	public Dependency<T> ignoredScoping() {
-		return hierarchy.length == 0
+		return hierarchy == null
 			? this
-			: dependency(instance,
-					arrayMap(hierarchy, Injection::ignoredScoping));
+			: dependency(instance, hierarchy.map(Injection::ignoredScoping));
 	}
 
 	public boolean isNotTargeted() {
-		return hierarchy.length == 0;
+		return hierarchy == null;
 	}
 
 	public Instance<?> target() {
@@ -141,17 +138,89 @@ public final class Dependency<T>
 	}
 
 	public Instance<?> target(int level) {
-		return level >= hierarchy.length
+		return level >= injectionDepth()
 			? Instance.ANY
 			: injection(level).target.instance;
 	}
 
+	/**
+	 * Use {@link #targets()} to look at all levels as each call walks the
+	 * hierarchy up to the given level.
+	 */
 	public Injection injection(int level) {
-		return hierarchy[hierarchy.length - 1 - level];
+		if (level < 0 || level >= injectionDepth())
+			throw new IndexOutOfBoundsException(
+					"No injection at level: " + level);
+		Frame f = hierarchy;
+		for (int i = 0; i < level; i++)
+			f = f.parent;
+		return f.injection;
 	}
 
 	public int injectionDepth() {
-		return hierarchy.length;
+		return hierarchy == null ? 0 : hierarchy.depth;
+	}
+
+	/**
+	 * @return the {@link #target(int)} of all levels with the most recent
+	 * target at index zero, computed in one walk of the hierarchy
+	 * @since 8.2
+	 */
+	public Instance<?>[] targets() {
+		Instance<?>[] targets = new Instance<?>[injectionDepth()];
+		int level = 0;
+		for (Frame f = hierarchy; f != null; f = f.parent)
+			targets[level++] = f.injection.target.instance;
+		return targets;
+	}
+
+	/**
+	 * @return a hash of the {@link #target(int)} of all levels, equal for
+	 * {@link Dependency}s with equal {@link #targets()}
+	 * @since 8.2
+	 */
+	public int targetsHash() {
+		return hierarchy == null ? 0 : hierarchy.targetsHash;
+	}
+
+	/**
+	 * Same as comparing the {@link #targets()} without creating them.
+	 *
+	 * @param targets the targets to compare with, most recent at index zero
+	 * @return true, if the {@link #target(int)} of all levels are equal to the
+	 * given targets
+	 * @since 8.2
+	 */
+	public boolean targetsEqualTo(Instance<?>[] targets) {
+		if (targets.length != injectionDepth())
+			return false;
+		int level = 0;
+		for (Frame f = hierarchy; f != null; f = f.parent)
+			if (!f.injection.target.instance.equalTo(targets[level++]))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Matches the parent targets of the hierarchy, that is all but the most
+	 * recent one, against the given {@link Instances} (outermost first) in one
+	 * walk from the most recent to the outermost level.
+	 *
+	 * @return true, if all the given parents are suitable for a {@link
+	 * #target(int)} in the same order, not necessarily directly following each
+	 * other
+	 */
+	boolean hasParentTargets(Instances parents,
+			BiPredicate<Instance<?>, Instance<?>> suitable) {
+		int pi = parents.depth() - 1;
+		if (pi < 0)
+			return true;
+		for (Frame f = hierarchy == null ? null : hierarchy.parent; f != null
+			&& f.depth > pi; f = f.parent)
+			if (suitable.test(parents.at(pi), f.injection.target.instance)
+				&& --pi < 0)
+				return true;
+		return false;
 	}
 
 	/**
@@ -177,42 +246,75 @@ public final class Dependency<T>
 	public Dependency<T> injectingInto(Locator<?> target,
 			ScopeLifeCycle lifeCycle)
 			throws DependencyCycle, UnstableDependency {
-		Injection injection = new Injection(instance, target, lifeCycle);
-		if (hierarchy.length == 0)
-			return new Dependency<>(at, instance, injection);
-		ensureStableScopeNesting(injection);
-		ensureNoDependencyCycle(injection);
-		return new Dependency<>(at, instance, arrayAppend(hierarchy, injection));
+		Frame top = new Frame(hierarchy, new Injection(instance, target, lifeCycle));
+		if (hierarchy != null) {
+			ensureStableScopeNesting(top.injection);
+			ensureNoDependencyCycle(top);
+		}
+		return new Dependency<>(at, instance, top);
+	}
+
+	/**
+	 * Does the same checks as {@link #injectingInto(Locator, ScopeLifeCycle)}
+	 * without creating the resulting {@link Dependency}. This is used when
+	 * the injected instance already exists so that the hierarchy is not
+	 * needed.
+	 *
+	 * @since 8.2
+	 */
+	public void ensureInjectableInto(Locator<?> target,
+			ScopeLifeCycle lifeCycle)
+			throws DependencyCycle, UnstableDependency {
+		if (hierarchy == null)
+			return;
+		Injection unstable = outermostUnstable(lifeCycle);
+		if (unstable != null)
+			throw new UnstableDependency(unstable,
+					new Injection(instance, target, lifeCycle));
+		if (hierarchy.contains(instance, target,
+				instance.hashCode() ^ target.hashCode()))
+			throw new DependencyCycle(this, target);
 	}
 
 	public Dependency<T> uninject() {
-		return hierarchy.length <= 1
+		return injectionDepth() <= 1
 			? simple()
-			: new Dependency<>(at, instance, arrayDropTail(hierarchy, 1));
+			: new Dependency<>(at, instance, hierarchy.parent);
 	}
 
-	private void ensureNoDependencyCycle(Injection injection)
-			throws DependencyCycle {
-		if (arrayContains(hierarchy, injection, Injection::equalTo))
+	private void ensureNoDependencyCycle(Frame top) throws DependencyCycle {
+		Injection injection = top.injection;
+		if (hierarchy.contains(injection.dependency, injection.target,
+				top.injectionHash))
 			throw new DependencyCycle(this, injection.target);
 	}
 
 	private void ensureStableScopeNesting(Injection injection)
 			throws UnstableDependency {
-		Injection unstable = arrayFindFirst(hierarchy,
-				e -> !injection.lifeCycle.isConsistentIn(e.lifeCycle));
+		Injection unstable = outermostUnstable(injection.lifeCycle);
 		if (unstable != null)
 			throw new UnstableDependency(unstable, injection);
 	}
 
+	private Injection outermostUnstable(ScopeLifeCycle lifeCycle) {
+		if (lifeCycle.isIgnored() || lifeCycle.isPermanent())
+			return null; // consistent in any scope
+		Injection unstable = null;
+		// ignored frames are skipped as anything is consistent in those
+		for (Frame f = hierarchy.scoped; f != null; f = f.nextScoped())
+			if (!lifeCycle.isConsistentIn(f.injection.lifeCycle))
+				unstable = f.injection; // keep looking for the outermost
+		return unstable;
+	}
+
 	public void ensureNoIllegalDirectAccessOf(Locator<? extends T> locator) {
 		if (!locator.target.indirect)
 			return;
 		Type<? super T> required = instance.type;
 		if (required.rawType.isInterface())
 			return;
-		for (int level = 0; level < injectionDepth(); level++) {
-			Instance<?> parent = target(level);
+		for (Frame f = hierarchy; f != null; f = f.parent) {
+			Instance<?> parent = f.injection.target.instance;
 			if (!required.isAssignableTo(parent.type()))
 				throw new UnresolvableDependency.IllegalAccess(locator, this);
 			if (parent.type.rawType.isInterface())
@@ -223,10 +325,117 @@ public final class Dependency<T>
 
 	@Override
 	public Iterator<Injection> iterator() {
-		return asList(hierarchy).iterator();
+		Injection[] injections = new Injection[injectionDepth()];
+		for (Frame f = hierarchy; f != null; f = f.parent)
+			injections[f.depth - 1] = f.injection;
+		return asList(injections).iterator();
 	}
 
 	public Hint<T> asHint() {
 		return Hint.absoluteReferenceTo(this);
 	}
+
+	/**
+	 * A persistent stack of {@link Injection}s. Each {@link Frame} links to the
+	 * {@link Frame} it was pushed on so that {@link Dependency}s with a common
+	 * hierarchy share it and adding an {@link Injection} does not copy it.
+	 * <p>
+	 * The hash of the hierarchy and a bit-set of the hashes of all contained
+	 * {@link Injection}s are computed once so that comparing hierarchies and
+	 * checking for cycles usually does not need to walk it.
+	 */
+	private static final class Frame implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final Injection injection;
+		final Frame parent;
+
+		final transient int depth;
+		final transient int injectionHash;
+		/**
+		 * Same as {@link java.util.Arrays#hashCode(Object[])} of the {@link
+		 * Injection}s from the bottom up to this {@link Frame}
+		 */
+		final transient int hash;
+		/**
+		 * Hash of the target {@link Instance}s from the bottom up to this
+		 * {@link Frame}
+		 */
+		final transient int targetsHash;
+		/**
+		 * One bit for each {@link #injectionHash} in this and all parent {@link
+		 * Frame}s.
+		 */
+		final transient long filter;
+		/**
+		 * This or the closest parent {@link Frame} whose {@link Injection} does
+		 * not ignore scoping or {@code null} if there is no such {@link Frame}.
+		 */
+		final transient Frame scoped;
+
+		Frame(Frame parent, Injection injection) {
+			this.parent = parent;
+			this.injection = injection;
+			this.injectionHash = injection.hashCode();
+			int targetHash = injection.target.instance.hashCode();
+			long bit = 1L << (injectionHash ^ (injectionHash >>> 16));
+			if (parent == null) {
+				this.depth = 1;
+				this.hash = 31 + injectionHash;
+				this.targetsHash = 31 + targetHash;
+				this.filter = bit;
+			} else {
+				this.depth = parent.depth + 1;
+				this.hash = 31 * parent.hash + injectionHash;
+				this.targetsHash = 31 * parent.targetsHash + targetHash;
+				this.filter = parent.filter | bit;
+			}
+			this.scoped = !injection.lifeCycle.isIgnored()
+				? this
+				: parent == null ? null : parent.scoped;
+		}
+
+		/**
+		 * Restores the transient fields.
+		 */
+		private Object readResolve() {
+			return new Frame(parent, injection);
+		}
+
+		Frame nextScoped() {
+			return parent == null ? null : parent.scoped;
+		}
+
+		/**
+		 * @param hash the {@link Injection#hashCode()} of an {@link Injection}
+		 *             of the given dependency into the given target
+		 */
+		boolean contains(Instance<?> dependency, Locator<?> target, int hash) {
+			if ((filter & (1L << (hash ^ (hash >>> 16)))) == 0L)
+				return false;
+			for (Frame f = this; f != null; f = f.parent)
+				if (f.injectionHash == hash
+					&& f.injection.dependency.equalTo(dependency)
+					&& f.injection.target.equalTo(target))
+					return true;
+			return false;
+		}
+
+		Frame map(UnaryOperator<Injection> f) {
+			return new Frame(parent == null ? null : parent.map(f),
+					f.apply(injection));
+		}
+
+		static boolean equalTo(Frame a, Frame b) {
+			while (a != b) {
+				if (a == null || b == null || a.hash != b.hash
+					|| a.depth != b.depth || !a.injection.equalTo(b.injection))
+					return false;
+				a = a.parent;
+				b = b.parent;
+			}
+			return true;
+		}
+	}
 }
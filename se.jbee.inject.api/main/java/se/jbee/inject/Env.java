@@ -49,6 +49,131 @@ public interface Env {
 	 */
 	String BIND_BINDINGS = "self-bind";
 
+	/**
+	 * Property name used to configure the {@link java.util.concurrent.Executor}
+	 * used to initialise {@link ScopeLifeCycle#isEager()} {@link Resource}s
+	 * concurrently at the end of bootstrapping an {@link Injector} context. If
+	 * no {@link java.util.concurrent.Executor} is set (default) they are
+	 * initialised one after another by the bootstrapping thread.
+	 *
+	 * @since 8.2
+	 */
+	String EAGER_INIT_EXECUTOR = "eager-init";
+
+	/**
+	 * Boolean flag property which when set to {@code true} makes the default
+	 * {@code New}, {@code Invoke} and {@code Get} strategies use {@link
+	 * java.lang.invoke.MethodHandle}s instead of reflection to construct
+	 * instances, call factory methods and read fields. Default is {@code
+	 * false}.
+	 *
+	 * @since 8.2
+	 */
+	String USE_METHOD_HANDLES = "method-handles";
+
+	/**
+	 * Property of type {@code se.jbee.inject.scope.EvictingScope.Bounds}
+	 * which when set makes the default {@link Scope#dependency}, {@link
+	 * Scope#dependencyType}, {@link Scope#dependencyInstance} and {@link
+	 * Scope#targetInstance} scopes bounded to the given limits. When not set
+	 * (default) these scopes keep all instances for the lifetime of the
+	 * application.
+	 *
+	 * @since 8.2
+	 */
+	String DEPENDENCY_SCOPE_BOUNDS = "dependency-scope-bounds";
+
+	/**
+	 * Property of type {@code se.jbee.inject.scope.TimeToLiveScope.Expiry}
+	 * used by {@link Scope#ttl(String)} scopes. A property qualified with the
+	 * full name of the scope, for example {@code ttl:tokens}, configures that
+	 * scope. A property qualified with just this name is used by all scopes
+	 * without their own property. When neither is set using the scope is
+	 * inconsistent.
+	 *
+	 * @since 8.2
+	 */
+	String TTL_EXPIRY = "ttl";
+
+	/**
+	 * Property name used to configure the {@link java.util.concurrent.Executor}
+	 * used to refresh instances in {@link Scope#ttl(String)} scopes ahead of
+	 * their expiry. If no {@link java.util.concurrent.Executor} is set
+	 * (default) the common {@link java.util.concurrent.ForkJoinPool} is used.
+	 *
+	 * @since 8.2
+	 */
+	String TTL_REFRESH_EXECUTOR = "ttl-refresh";
+
+	/**
+	 * Property of type {@link java.util.function.LongSupplier} used as the
+	 * source of time in nanoseconds by {@link Scope#ttl(String)} scopes. If
+	 * not set (default) {@link System#nanoTime()} is used.
+	 *
+	 * @since 8.2
+	 */
+	String TTL_CLOCK = "ttl-clock";
+
+	/**
+	 * Property of type {@code se.jbee.inject.scope.PoolScope.Limits} used by
+	 * {@link Scope#pool(String)} scopes. Like {@link #TTL_EXPIRY} a property
+	 * qualified with the full name of the scope, for example {@code
+	 * pool:parsers}, configures that scope while a property qualified with
+	 * just this name is used by all scopes without their own property.
+	 *
+	 * @since 8.2
+	 */
+	String POOL_LIMITS = "pool";
+
+	/**
+	 * Property of type {@link Integer} used to configure the number of stripes
+	 * in the {@link Scope#striped} scope. If not set (default) the number of
+	 * available processors is used.
+	 *
+	 * @since 8.2
+	 */
+	String STRIPES = "stripes";
+
+	/**
+	 * Property of type {@link java.util.concurrent.ExecutorService} which when
+	 * set is bound named {@link Scope#worker} as {@link
+	 * java.util.concurrent.ExecutorService} and {@link
+	 * java.util.concurrent.Executor} wrapped so that submitted tasks run in the
+	 * {@link Scope#worker} context of the submitting {@link Thread}. Not set
+	 * by default.
+	 *
+	 * @since 8.2
+	 */
+	String WORKER_EXECUTOR = "worker-executor";
+
+	/**
+	 * Property of type {@code se.jbee.inject.scope.TenantScope.Tenancy} used
+	 * by the {@link Scope#tenant} scope to identify the current tenant and
+	 * limit the number of resident tenants. When not set using the scope is
+	 * inconsistent.
+	 *
+	 * @since 8.2
+	 */
+	String TENANCY = "tenancy";
+
+	/**
+	 * Property of type {@code se.jbee.inject.scope.OffHeapScope.Codec} used
+	 * by the {@link Scope#offHeap} scope to encode and decode instances. If
+	 * not set (default) java serialisation is used.
+	 *
+	 * @since 8.2
+	 */
+	String OFF_HEAP_CODEC = "off-heap-codec";
+
+	/**
+	 * Property of type {@link Integer} used to configure the number of decoded
+	 * instances the {@link Scope#offHeap} scope keeps on the heap. If not set
+	 * (default) 16 instances are kept.
+	 *
+	 * @since 8.2
+	 */
+	String OFF_HEAP_CACHE_SIZE = "off-heap-cache";
+
 	<T> T property(Name qualifier, Type<T> property, Class<?> ns)
 			throws InconsistentDeclaration;
 
@@ -9,6 +9,7 @@ import se.jbee.lang.Type;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.Optional;
 
 import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Instance.instance;
@@ -46,6 +47,30 @@ public interface Injector {
 	 */
 	<T> T resolve(Dependency<T> dependency) throws UnresolvableDependency;
 
+	/**
+	 * Resolves the {@link Dependency} like {@link #resolve(Dependency)} but
+	 * instead of throwing an {@link UnresolvableDependency} the result is
+	 * {@link Optional#empty()}. This is also the result for a resolved {@code
+	 * null} value.
+	 * <p>
+	 * Use this whenever it is expected that a {@link Dependency} might not be
+	 * resolvable. Implementations should override this to determine that no
+	 * {@link Resource} matches the {@link Dependency} without creating an
+	 * {@link UnresolvableDependency} for it.
+	 *
+	 * @param dependency describes the absolute instance to resolve
+	 * @return The resolved instance or {@link Optional#empty()} if it could
+	 * not be resolved
+	 * @since 8.2
+	 */
+	default <T> Optional<T> tryResolve(Dependency<T> dependency) {
+		try {
+			return Optional.ofNullable(resolve(dependency));
+		} catch (UnresolvableDependency e) {
+			return Optional.empty();
+		}
+	}
+
 	/* Utility methods */
 
 	/**
@@ -79,6 +104,14 @@ public interface Injector {
 		return resolve(dependency(inst));
 	}
 
+	default <T> Optional<T> tryResolve(Class<T> type) {
+		return tryResolve(dependency(type));
+	}
+
+	default <T> Optional<T> tryResolve(Type<T> type) {
+		return tryResolve(dependency(type));
+	}
+
 	default Injector subContext(Class<?> target) {
 		return subContext(target.getName());
 	}
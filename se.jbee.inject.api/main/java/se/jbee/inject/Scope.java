@@ -49,6 +49,28 @@ public interface Scope {
 	<T> T provide(int serialID, int resources, Dependency<? super T> dep,
 			Provider<T> provider) throws UnresolvableDependency;
 
+	/**
+	 * Looks up an instance that already exists in this {@link Scope} without
+	 * creating it. This allows the {@link Injector} to skip preparing the
+	 * {@link Dependency} and {@link Provider} passed to {@link #provide(int,
+	 * int, Dependency, Provider)} when the instance exists. Implementations
+	 * should not allocate objects to do the lookup, if that is not possible
+	 * they should not implement it.
+	 *
+	 * @param serialID ID number of this {@link Resource} with the {@link
+	 *                 Injector} context
+	 * @param dep      currently served {@link Dependency} (not yet injected
+	 *                 into the {@link Resource} as it is when passed to
+	 *                 {@link #provide(int, int, Dependency, Provider)})
+	 * @return the existing instance or {@code null} if there is no instance
+	 * yet or this {@link Scope} does not support lookups in which case {@link
+	 * #provide(int, int, Dependency, Provider)} is used
+	 * @since 8.2
+	 */
+	default <T> T lookup(int serialID, Dependency<? super T> dep) {
+		return null;
+	}
+
 	/**
 	 * A virtual scope used by the scope configuration {@code ScopedBy } to
 	 * indicate that no particular scope should be used. This falls back on
@@ -114,6 +136,16 @@ public interface Scope {
 	 */
 	Name worker = named("@worker");
 
+	/**
+	 * A scope for a unit of work, like a request in a HTTP server, that is
+	 * explicitly begun and ended by the {@link Thread} handling it. Instances
+	 * created within the unit of work that are {@link AutoCloseable} are
+	 * closed when it ends.
+	 *
+	 * @since 8.2
+	 */
+	Name request = named("request");
+
 	/**
 	 * A scope that stores one instance per exact dependency. That means it
 	 * considers the {@link Instance} and the {@link Injection} hierarchy of the
@@ -156,6 +188,51 @@ public interface Scope {
 	 */
 	Name targetInstance = named("target-instance");
 
+	/**
+	 * A scope that stores a fixed number of instances per binding, called
+	 * stripes. Each {@link Thread} uses one of the stripes so that instances
+	 * that are written to by many threads are less contended.
+	 * <p>
+	 * This is like an application singleton per stripe.
+	 *
+	 * @since 8.2
+	 */
+	Name striped = named("striped");
+
+	/**
+	 * Like {@link #application} but instances are only softly referenced so
+	 * that the garbage collector can reclaim them when memory is needed. A
+	 * reclaimed instance is created again when it is resolved the next time.
+	 *
+	 * @since 8.2
+	 */
+	Name soft = named("soft");
+
+	/**
+	 * Like {@link #soft} but instances are only weakly referenced so that the
+	 * garbage collector reclaims them once they are not used anymore.
+	 *
+	 * @since 8.2
+	 */
+	Name weak = named("weak");
+
+	/**
+	 * Like {@link #application} but per tenant. The tenant is identified by a
+	 * key configured using {@link Env#TENANCY}.
+	 *
+	 * @since 8.2
+	 */
+	Name tenant = named("tenant");
+
+	/**
+	 * Like {@link #application} but instances are stored off-heap in an
+	 * encoded form and decoded when they are resolved. The encoding is
+	 * configured using {@link Env#OFF_HEAP_CODEC}.
+	 *
+	 * @since 8.2
+	 */
+	Name offHeap = named("off-heap");
+
 	/**
 	 * Returns the name of a disk scope with the given directory as its root.
 	 *
@@ -167,6 +244,35 @@ public interface Scope {
 		return Name.named(dir.getAbsolutePath()).in("disk");
 	}
 
+	/**
+	 * Returns the name of a time to live scope. Instances in such a scope are
+	 * kept for a duration and refreshed ahead of their expiry. The durations
+	 * are configured per scope name using {@link Env#TTL_EXPIRY}.
+	 *
+	 * @param profile the name of the configuration used by the scope
+	 * @return the name to use when binding the {@link Scope} (and {@link
+	 * ScopeLifeCycle}).
+	 * @since 8.2
+	 */
+	static Name ttl(String profile) {
+		return Name.named(profile).in("ttl");
+	}
+
+	/**
+	 * Returns the name of a pool scope. Instances in such a scope are borrowed
+	 * from a bounded pool per binding and returned using the scope's {@link
+	 * Controller}. The limits are configured per scope name using {@link
+	 * Env#POOL_LIMITS}.
+	 *
+	 * @param profile the name of the configuration used by the scope
+	 * @return the name to use when binding the {@link Scope} (and {@link
+	 * ScopeLifeCycle}).
+	 * @since 8.2
+	 */
+	static Name pool(String profile) {
+		return Name.named(profile).in("pool");
+	}
+
 	/**
 	 * Often called the 'default' or 'prototype'-scope. Asks the {@link
 	 * Provider} once per injection. In other words it is a stateless scope that
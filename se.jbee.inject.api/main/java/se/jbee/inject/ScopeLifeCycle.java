@@ -74,6 +74,22 @@ public final class ScopeLifeCycle implements Serializable {
 	 */
 	public static final ScopeLifeCycle disk = scopeLifeCycle(named("@disk"));
 
+	/**
+	 * A group of scopes whose instances are replaced after a time to live.
+	 *
+	 * @see Scope#ttl(String)
+	 * @since 8.2
+	 */
+	public static final ScopeLifeCycle ttl = scopeLifeCycle(named("@ttl"));
+
+	/**
+	 * A group of scopes whose instances are borrowed from a pool.
+	 *
+	 * @see Scope#pool(String)
+	 * @since 8.2
+	 */
+	public static final ScopeLifeCycle pool = scopeLifeCycle(named("@pool"));
+
 	public static ScopeLifeCycle scopeLifeCycle(Name scope,
 			Name... consistentInScopes) {
 		return new ScopeLifeCycle(scope, consistentInScopes, false, false,
@@ -122,22 +122,8 @@ public final class Target
 	}
 
 	private boolean isUsableParentWise(Dependency<?> dep) {
-		if (parents.isAny())
-			return true;
-		int pl = parents.depth();
-		int il = dep.injectionDepth() - 1;
-		if (pl > il) {
-			return false;
-		}
-		int pi = 0;
-		while (pl <= il && pl > 0) {
-			if (isSuitableInstance(parents.at(pi), dep.target(il))) {
-				pl--;
-				pi++;
-			}
-			il--;
-		}
-		return pl == 0;
+		return parents.isAny()
+			|| dep.hasParentTargets(parents, Target::isSuitableInstance);
 	}
 
 	private static boolean isUsableTypeWise(Type<?> required, Type<?> offered) {
@@ -6,13 +6,11 @@ import se.jbee.lang.Type;
 import java.util.Optional;
 
 import static java.util.Optional.empty;
-import static java.util.Optional.ofNullable;
 import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Instance.defaultInstanceOf;
 import static se.jbee.inject.Instance.instance;
 import static se.jbee.inject.Name.named;
 import static se.jbee.lang.Type.raw;
-import static se.jbee.lang.Utils.orElse;
 
 /**
  * The {@link Config} is a runtime-configuration of the application. It allows
@@ -89,9 +87,8 @@ public class Config implements ContextAware<Config>, Extension {
 		public <B> Optional<B> as(Type<B> type) {
 			if (from.isAssignableTo(type))
 				return (Optional<B>) optionalValue(from, property);
-			Converter<A, B> converter = orElse(null,
-					() -> Config.this.context.resolve(
-							Converter.converterTypeOf(from, type)));
+			Converter<A, B> converter = Config.this.context.tryResolve(
+					Converter.converterTypeOf(from, type)).orElse(null);
 			if (converter == null)
 				return empty();
 			return Config.this.optionalValue(from, property) //
@@ -126,8 +123,7 @@ public class Config implements ContextAware<Config>, Extension {
 	}
 
 	public <T> Optional<T> optionalValue(Type<T> type, String property) {
-		return orElse(empty(), () -> ofNullable(
-				context.resolve(toDependency(type, property))));
+		return context.tryResolve(toDependency(type, property));
 	}
 
 	private <T> Dependency<T> toDependency(Type<T> type, String property) {
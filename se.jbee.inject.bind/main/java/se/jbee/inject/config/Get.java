@@ -19,6 +19,14 @@ import java.lang.reflect.Field;
 @FunctionalInterface
 public interface Get {
 
+	/**
+	 * Uses a {@link java.lang.invoke.MethodHandle} per {@link Field} instead
+	 * of reflection. Usually faster for {@link Field}s used repeatedly.
+	 *
+	 * @since 8.2
+	 */
+	Get METHOD_HANDLE = MethodHandleReflection::get;
+
 	/**
 	 * An implementation of this method should basically just call {@link
 	 * Field#get(Object)}.
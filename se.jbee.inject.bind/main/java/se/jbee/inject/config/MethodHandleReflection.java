@@ -0,0 +1,197 @@
+package se.jbee.inject.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Implements {@link New}, {@link Invoke} and {@link Get} using {@link
+ * MethodHandle}s instead of reflection.
+ * <p>
+ * Each {@link Constructor}, {@link Method} or {@link Field} is unreflected
+ * once. The resulting {@link MethodHandle} is adapted to a uniform signature
+ * that takes the arguments as {@code Object[]} so that all further calls are
+ * a lookup of the cached handle followed by {@link MethodHandle#invokeExact(Object...)}
+ * which skips the access checks done by reflection on each call. The handles
+ * are cached per declaring {@link Class} using a {@link ClassValue} so that
+ * they do not keep the {@link Class} and its {@link ClassLoader} from being
+ * unloaded.
+ * <p>
+ * Members not accessible to this module are still called using reflection so
+ * that the result is the same as binding the reflective variants.
+ *
+ * @since 8.2
+ */
+final class MethodHandleReflection {
+
+	private MethodHandleReflection() {
+		throw new UnsupportedOperationException("util");
+	}
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final MethodHandle REFLECT_NEW = reflective(
+			Constructor.class, "newInstance",
+			methodType(Object.class, Object[].class));
+	private static final MethodHandle REFLECT_INVOKE = reflective(Method.class,
+			"invoke", methodType(Object.class, Object.class, Object[].class));
+	private static final MethodHandle REFLECT_GET = reflective(Field.class,
+			"get", methodType(Object.class, Object.class));
+	private static final MethodHandle INVOCATION_TARGET = invocationTarget();
+
+	/**
+	 * Handles of a {@link Class}'s members. Those of a {@link Constructor} are
+	 * of type {@code (Object[])Object}, those of a {@link Method} {@code
+	 * (Object, Object[])Object} and those of a {@link Field} {@code
+	 * (Object)Object}.
+	 */
+	private static final ClassValue<Map<Member, MethodHandle>> HANDLES = new ClassValue<Map<Member, MethodHandle>>() {
+
+		@Override
+		protected Map<Member, MethodHandle> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	@SuppressWarnings("unchecked")
+	static <T> T newInstance(Constructor<T> target, Object[] args)
+			throws Exception {
+		Map<Member, MethodHandle> handles = HANDLES.get(
+				target.getDeclaringClass());
+		MethodHandle h = handles.get(target);
+		if (h == null)
+			h = handles.computeIfAbsent(target,
+					m -> unreflectConstructor((Constructor<?>) m));
+		try {
+			return (T) (Object) h.invokeExact(args);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	static Object invoke(Method target, Object instance, Object[] args)
+			throws Exception {
+		Map<Member, MethodHandle> handles = HANDLES.get(
+				target.getDeclaringClass());
+		MethodHandle h = handles.get(target);
+		if (h == null)
+			h = handles.computeIfAbsent(target,
+					m -> unreflectMethod((Method) m));
+		try {
+			return (Object) h.invokeExact(instance, args);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	static Object get(Field target, Object instance) throws Exception {
+		Map<Member, MethodHandle> handles = HANDLES.get(
+				target.getDeclaringClass());
+		MethodHandle h = handles.get(target);
+		if (h == null)
+			h = handles.computeIfAbsent(target,
+					m -> unreflectGetter((Field) m));
+		try {
+			return (Object) h.invokeExact(instance);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	private static MethodHandle unreflectConstructor(Constructor<?> target) {
+		try {
+			return spread(LOOKUP.unreflectConstructor(target),
+					target.getParameterCount());
+		} catch (IllegalAccessException e) {
+			return REFLECT_NEW.bindTo(target);
+		}
+	}
+
+	private static MethodHandle unreflectMethod(Method target) {
+		try {
+			MethodHandle h = spread(LOOKUP.unreflect(target),
+					target.getParameterCount());
+			return Modifier.isStatic(target.getModifiers())
+				? MethodHandles.dropArguments(h, 0, Object.class)
+				: h;
+		} catch (IllegalAccessException e) {
+			return REFLECT_INVOKE.bindTo(target);
+		}
+	}
+
+	private static MethodHandle unreflectGetter(Field target) {
+		try {
+			MethodHandle h = generic(LOOKUP.unreflectGetter(target));
+			return Modifier.isStatic(target.getModifiers())
+				? MethodHandles.dropArguments(h, 0, Object.class)
+				: h;
+		} catch (IllegalAccessException e) {
+			return REFLECT_GET.bindTo(target);
+		}
+	}
+
+	/**
+	 * Reflection wraps any {@link Throwable} thrown by the called member in
+	 * an {@link InvocationTargetException}. To be equivalent this is done by
+	 * the handle of the member itself before it is adapted to {@link Object}
+	 * parameters so that exceptions caused by adapting the arguments, like a
+	 * {@link ClassCastException}, are not wrapped.
+	 */
+	private static MethodHandle generic(MethodHandle h) {
+		h = h.asFixedArity();
+		MethodType type = h.type();
+		h = MethodHandles.catchException(h, Throwable.class,
+				MethodHandles.dropArguments(INVOCATION_TARGET.asType(
+						methodType(type.returnType(), Throwable.class)), 1,
+						type.parameterList()));
+		return h.asType(type.generic());
+	}
+
+	/**
+	 * Makes the last {@code count} parameters one trailing {@code Object[]}
+	 * parameter.
+	 */
+	private static MethodHandle spread(MethodHandle h, int count) {
+		return generic(h).asSpreader(Object[].class, count);
+	}
+
+	private static MethodHandle reflective(Class<?> refc, String name,
+			MethodType type) {
+		try {
+			return LOOKUP.findVirtual(refc, name, type).asFixedArity();
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static MethodHandle invocationTarget() {
+		try {
+			return LOOKUP.findStatic(MethodHandleReflection.class,
+					"invocationTarget", methodType(Object.class, Throwable.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static Object invocationTarget(Throwable e)
+			throws InvocationTargetException {
+		throw new InvocationTargetException(e);
+	}
+
+	private static Exception rethrow(Throwable e) {
+		if (e instanceof Error)
+			throw (Error) e;
+		return (Exception) e;
+	}
+}
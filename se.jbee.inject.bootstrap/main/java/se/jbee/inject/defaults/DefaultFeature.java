@@ -103,6 +103,7 @@ public enum DefaultFeature implements Dependent<DefaultFeature> {
 
 	/**
 	 * Adds: Default bindings for {@link New}, {@link Invoke} and {@link Get}.
+	 * These use reflection unless {@link Env#USE_METHOD_HANDLES} is set.
 	 */
 	REFLECT(true),
 	;
@@ -141,9 +142,15 @@ public enum DefaultFeature implements Dependent<DefaultFeature> {
 
 		@Override
 		protected void declare() {
-			asDefault().bind(New.class).to(Constructor::newInstance);
-			asDefault().bind(Invoke.class).to(Method::invoke);
-			asDefault().bind(Get.class).to(Field::get);
+			if (env().property(Env.USE_METHOD_HANDLES, false)) {
+				asDefault().bind(New.class).to(New.METHOD_HANDLE);
+				asDefault().bind(Invoke.class).to(Invoke.METHOD_HANDLE);
+				asDefault().bind(Get.class).to(Get.METHOD_HANDLE);
+			} else {
+				asDefault().bind(New.class).to(Constructor::newInstance);
+				asDefault().bind(Invoke.class).to(Method::invoke);
+				asDefault().bind(Get.class).to(Field::get);
+			}
 		}
 	}
 
@@ -217,12 +224,8 @@ public enum DefaultFeature implements Dependent<DefaultFeature> {
 
 		@SuppressWarnings("unchecked")
 		<T> Optional<T> optional(Dependency<? super Optional<T>> dep, Injector context) {
-			try {
-				return Optional.ofNullable(
-						(T) context.resolve(dep.onTypeParameter().uninject()));
-			} catch (UnresolvableDependency e) {
-				return Optional.empty();
-			}
+			return (Optional<T>) context.tryResolve(
+					dep.onTypeParameter().uninject());
 		}
 	}
 
@@ -292,7 +295,7 @@ public enum DefaultFeature implements Dependent<DefaultFeature> {
 				Dependency<E> elementDep = (Dependency<E>) dep.typed(targetType.baseType());
 				return new ObtainableCollection<>(context, elementDep);
 			}
-			return new ObtainableInstance<>(() -> context.resolve(targetDep));
+			return new ObtainableInstance<>(context, targetDep);
 		}
 
 		static final class ObtainableCollection<T, E> implements Obtainable<T> {
@@ -329,36 +332,53 @@ public enum DefaultFeature implements Dependent<DefaultFeature> {
 
 		static final class ObtainableInstance<T> implements Obtainable<T> {
 
-			private final Provider<T> resolver;
-			private final Lazy<T> value = new Lazy<>();
-			private UnresolvableDependency caught;
+			/**
+			 * Marks a {@link Dependency} that could not be resolved
+			 */
+			private static final Object NO_MATCH = new Object();
 
-			ObtainableInstance(Provider<T> resolver) {
-				this.resolver = resolver;
+			private final Injector context;
+			private final Dependency<T> dep;
+			/**
+			 * Either the resolved instance or {@link #NO_MATCH}
+			 */
+			private final Lazy<Object> value = new Lazy<>();
+			/**
+			 * Only created when {@link #orElseThrow(Function)} needs it
+			 */
+			private final Lazy<UnresolvableDependency> failure = new Lazy<>();
+
+			ObtainableInstance(Injector context, Dependency<T> dep) {
+				this.context = context;
+				this.dep = dep;
 			}
 
-			private T resolve() {
-				try {
-					return resolver.provide();
-				} catch (UnresolvableDependency e) {
-					caught = e;
-					return null;
-				}
+			private Object resolve() {
+				Optional<T> res = context.tryResolve(dep);
+				return res.isPresent() ? res.get() : NO_MATCH;
+			}
+
+			private UnresolvableDependency noMatch() {
+				return new UnresolvableDependency.ResourceResolutionFailed(
+						"No matching resource found.", dep);
 			}
 
+			@SuppressWarnings("unchecked")
 			@Override
 			public T obtain() {
-				return value.get(this::resolve);
+				Object res = value.get(this::resolve);
+				return res == NO_MATCH ? null : (T) res;
 			}
 
+			@SuppressWarnings("unchecked")
 			@Override
 			public <X extends Exception> T orElseThrow(
 					Function<UnresolvableDependency, ? extends X> exceptionTransformer)
 					throws X {
-				T res = obtain();
-				if (res != null)
-					return res;
-				throw exceptionTransformer.apply(caught);
+				Object res = value.get(this::resolve);
+				if (res != NO_MATCH)
+					return (T) res;
+				throw exceptionTransformer.apply(failure.get(this::noMatch));
 			}
 		}
 	}
@@ -5,6 +5,11 @@ import se.jbee.inject.bind.Bind;
 import se.jbee.inject.binder.BinderModule;
 import se.jbee.inject.scope.*;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
 import static se.jbee.inject.ScopeLifeCycle.singleton;
 import static se.jbee.inject.ScopeLifeCycle.unstable;
 
@@ -25,6 +30,7 @@ public final class DefaultScopes extends BinderModule {
 		bindLifeCycle(ScopeLifeCycle.container);
 		bindLifeCycle(singleton.derive(Scope.jvm));
 		bindLifeCycle(singleton.derive(Scope.application));
+		bindLifeCycle(singleton.derive(Scope.offHeap));
 		bindLifeCycle(singleton.derive(Scope.dependency));
 		bindLifeCycle(singleton.derive(Scope.dependencyType));
 		bindLifeCycle(singleton.derive(Scope.dependencyInstance));
@@ -32,28 +38,129 @@ public final class DefaultScopes extends BinderModule {
 		bindLifeCycle(unstable.derive(Scope.thread) //
 				.canBeInjectedInto(Scope.thread)//
 				.canBeInjectedInto(Scope.worker) //
+				.canBeInjectedInto(Scope.request) //
 				.canBeInjectedInto(Scope.injection)); //
 		bindLifeCycle(unstable.derive(Scope.injection) //
 				.canBeInjectedInto(Scope.injection));
 		bindLifeCycle(unstable.derive(Scope.worker) //
 				.canBeInjectedInto(Scope.worker) //
 				.canBeInjectedInto(Scope.injection)); //
+		bindLifeCycle(unstable.derive(Scope.request) //
+				.canBeInjectedInto(Scope.request) //
+				.canBeInjectedInto(Scope.injection));
+		bindLifeCycle(unstable.derive(Scope.tenant) //
+				.canBeInjectedInto(Scope.tenant) //
+				.canBeInjectedInto(Scope.request) //
+				.canBeInjectedInto(Scope.worker) //
+				.canBeInjectedInto(Scope.injection));
+		bindLifeCycle(unstable.derive(Scope.striped) //
+				.canBeInjectedInto(Scope.thread) //
+				.canBeInjectedInto(Scope.injection));
+		bindLifeCycle(unstable.derive(Scope.soft) //
+				.canBeInjectedInto(Scope.injection));
+		bindLifeCycle(unstable.derive(Scope.weak) //
+				.canBeInjectedInto(Scope.injection));
+		bindLifeCycle(ScopeLifeCycle.ttl);
+		bindLifeCycle(ScopeLifeCycle.pool);
 
 		bindScope(Scope.injection).to(Scope.INJECTION);
 		bindScope(Scope.application).to(ApplicationScope.class);
 		bindScope(Scope.thread).to(ThreadScope.class);
 		bindScope(Scope.jvm).to(TypeDependentScope.JVM);
 		bindScope(Scope.worker).to(WorkerScope.class);
+		bindScope(Scope.soft).toProvider(ReferenceScope::soft);
+		bindScope(Scope.weak).toProvider(ReferenceScope::weak);
 		per(Scope.worker).bind(
-				Scope.Controller.forScope(Scope.worker)).toGenerator(
+				Scope.Controller.forScope(Scope.worker)).toScopedGenerator(
 						gen -> null); // dummy generator as the scope will supply
+		bindScope(Scope.request).to(RequestScope.class);
+		per(Scope.request).bind(
+				Scope.Controller.forScope(Scope.request)).toScopedGenerator(
+						gen -> null); // dummy generator as the scope will supply
+		Env env = env();
+		ExecutorService workerExecutor = env.property(Env.WORKER_EXECUTOR,
+				ExecutorService.class, null);
+		if (workerExecutor != null) {
+			bind(Scope.worker, ExecutorService.class).toSupplier(
+					(dep, context) -> workerScope(context).propagating(
+							workerExecutor));
+			bind(Scope.worker, Executor.class).toSupplier(
+					(dep, context) -> context.resolve(Scope.worker,
+							ExecutorService.class));
+		}
+		int stripes = env.property(Env.STRIPES, Integer.class,
+				Runtime.getRuntime().availableProcessors());
+		bindScope(Scope.striped).toProvider(() -> new StripedScope(stripes));
+		bindScope(Scope.offHeap).toProvider(() -> new OffHeapScope(
+				env.property(Env.OFF_HEAP_CODEC, OffHeapScope.Codec.class,
+						OffHeapScope.SERIALIZATION),
+				env.property(Env.OFF_HEAP_CACHE_SIZE, Integer.class, 16)));
+		bindScope(Scope.tenant).toSupplier(
+				(dep, context) -> createTenantScope(env));
+		bindScope(Name.ANY.in("ttl")).toSupplier(
+				(dep, context) -> createTimeToLiveScope(dep.instance.name, env));
+		bindScope(Name.ANY.in("pool")).toSupplier(
+				(dep, context) -> new PoolScope(scopeProperty(dep.instance.name,
+						Env.POOL_LIMITS, PoolScope.Limits.class, env)));
+
+		EvictingScope.Bounds bounds = env().property(
+				Env.DEPENDENCY_SCOPE_BOUNDS, EvictingScope.Bounds.class, null);
+		if (bounds == null) {
+			bindScope(Scope.dependency).toProvider(TypeDependentScope::perHierarchicalInstanceSignature);
+			bindScope(Scope.dependencyInstance).toProvider(TypeDependentScope::perInstanceSignature);
+			bindScope(Scope.dependencyType).toProvider(TypeDependentScope::perTypeSignature);
+			bindScope(Scope.targetInstance).toProvider(TypeDependentScope::perTargetInstanceSignature);
+		} else {
+			bindScope(Scope.dependency).toProvider(() -> EvictingScope.scope(
+					TypeDependentScope::hierarchicalInstanceKey, bounds));
+			bindScope(Scope.dependencyInstance).toProvider(() -> EvictingScope.scope(
+					TypeDependentScope::instanceKey, bounds));
+			bindScope(Scope.dependencyType).toProvider(() -> EvictingScope.scope(
+					TypeDependentScope::typeKey, bounds));
+			bindScope(Scope.targetInstance).toProvider(() -> EvictingScope.scope(
+					TypeDependentScope::targetInstanceKey, bounds));
+		}
+	}
 
-		bindScope(Scope.dependency).toProvider(TypeDependentScope::perHierarchicalInstanceSignature);
-		bindScope(Scope.dependencyInstance).toProvider(TypeDependentScope::perInstanceSignature);
-		bindScope(Scope.dependencyType).toProvider(TypeDependentScope::perTypeSignature);
-		bindScope(Scope.targetInstance).toProvider(TypeDependentScope::perTargetInstanceSignature);
+	private static WorkerScope workerScope(Injector context) {
+		return (WorkerScope) context.resolve(Scope.worker, Scope.class);
+	}
 
+	private static Scope createTenantScope(Env env) {
+		TenantScope.Tenancy tenancy = env.property(Env.TENANCY,
+				TenantScope.Tenancy.class, null);
+		if (tenancy == null)
+			throw new InconsistentDeclaration("Scope `" + Scope.tenant
+				+ "` is used but not configured using `" + Env.TENANCY
+				+ "` property");
+		return new TenantScope(tenancy);
+	}
 
+	private static Scope createTimeToLiveScope(Name scope, Env env) {
+		return new TimeToLiveScope(
+				scopeProperty(scope, Env.TTL_EXPIRY,
+						TimeToLiveScope.Expiry.class, env),
+				env.property(Env.TTL_REFRESH_EXECUTOR, Executor.class,
+						ForkJoinPool.commonPool()),
+				env.property(Env.TTL_CLOCK, LongSupplier.class,
+						System::nanoTime));
 	}
 
+	/**
+	 * By convention scope names like {@link Scope#ttl(String)} start with the
+	 * name of the {@link Env} property configuring the scope followed by the
+	 * profile. The full name qualifies the property for the scope, the
+	 * property name alone qualifies the property used when there is none for
+	 * the scope.
+	 */
+	private static <T> T scopeProperty(Name scope, String property,
+			Class<T> type, Env env) {
+		T value = env.property(scope.toString(), type,
+				env.property(property, type, null));
+		if (value == null)
+			throw new InconsistentDeclaration("Scope `" + scope
+				+ "` is used but not configured using `" + property
+				+ "` property");
+		return value;
+	}
 }
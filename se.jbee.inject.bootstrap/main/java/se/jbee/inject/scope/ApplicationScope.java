@@ -2,8 +2,12 @@ package se.jbee.inject.scope;
 
 import se.jbee.inject.*;
 
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static se.jbee.inject.scope.Claim.MASKED;
+import static se.jbee.inject.scope.Claim.isClaim;
+import static se.jbee.inject.scope.Claim.unmask;
 
 /**
  * Asks the {@link Provider} once per binding. Thereby instances become
@@ -12,18 +16,53 @@ import java.util.concurrent.atomic.AtomicReferenceArray;
  * Will lead to instances that can be seen as application-wide-singletons.
  *
  * Contains an instance per {@link Generator}. Instances are never updated.
+ * <p>
+ * Each slot is initialised once: the first thread asking for it claims the
+ * slot and calls the {@link Provider} while other threads asking for the same
+ * slot are parked until the instance is available. Should the {@link
+ * Provider} fail the waiting threads fail with the same exception and the
+ * slot is released so that the next thread asking will try again. Once a slot
+ * is initialised the instance is returned by a plain volatile read.
  */
 public final class ApplicationScope implements Scope {
 
-	private final AtomicReference<AtomicReferenceArray<Object>> instances = new AtomicReference<>();
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ApplicationScope, AtomicReferenceArray> INSTANCES = //
+			AtomicReferenceFieldUpdater.newUpdater(ApplicationScope.class,
+					AtomicReferenceArray.class, "instances");
+
+	/**
+	 * Each slot is either {@code null} (uninitialised), a {@link Claim}
+	 * (initialisation in progress) or the {@link Claim#mask(Object)}ed
+	 * instance.
+	 */
+	private volatile AtomicReferenceArray<Object> instances;
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
 			Provider<T> provider) throws UnresolvableDependency {
-		return (T) instances.updateAndGet(objs -> objs != null
-			? objs
-			: new AtomicReferenceArray<>(resources)).updateAndGet(serialID,
-					obj -> obj != null ? obj : provider.provide());
+		AtomicReferenceArray<Object> objs = instances;
+		if (objs == null)
+			objs = instances(resources);
+		Object obj = objs.get(serialID);
+		if (obj != null && !isClaim(obj))
+			return unmask(obj);
+		return Claim.provide(objs, serialID, dep, provider, MASKED);
+	}
+
+	@Override
+	public <T> T lookup(int serialID, Dependency<? super T> dep) {
+		AtomicReferenceArray<Object> objs = instances;
+		if (objs == null)
+			return null;
+		Object obj = objs.get(serialID);
+		return obj == null || isClaim(obj) ? null : unmask(obj);
+	}
+
+	@SuppressWarnings("unchecked")
+	private AtomicReferenceArray<Object> instances(int resources) {
+		INSTANCES.compareAndSet(this, null,
+				new AtomicReferenceArray<>(resources));
+		return instances;
 	}
 }
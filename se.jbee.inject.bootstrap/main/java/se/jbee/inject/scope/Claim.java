@@ -0,0 +1,171 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Locator;
+import se.jbee.inject.Provider;
+import se.jbee.inject.UnresolvableDependency.DependencyCycle;
+import se.jbee.lang.Attempt;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static se.jbee.lang.Attempt.rethrow;
+
+/**
+ * An ongoing initialisation of a {@link se.jbee.inject.Scope} slot that other
+ * threads can wait for. Waiting and failing is shared with {@link
+ * se.jbee.lang.Lazy} by extending its {@link Attempt}.
+ * <p>
+ * A slot is either empty ({@code null}), claimed by a {@link Claim} or holds
+ * the {@link #mask(Object)}ed instance. The thread that succeeds to put its
+ * {@link Claim} into an empty slot calls the {@link se.jbee.inject.Provider}
+ * and {@link #complete(Object)}s the {@link Claim} with the instance or
+ * {@link #fail(Throwable)}s it.
+ * <p>
+ * This protocol is implemented by {@link #provide(AtomicReferenceArray, int,
+ * Dependency, Provider, Slots)} for all scopes that keep their instances in
+ * slots of an {@link AtomicReferenceArray}. They only differ in the {@link
+ * Slots} value they store for an instance.
+ *
+ * @since 8.2
+ */
+final class Claim extends Attempt {
+
+	/**
+	 * How a scope stores its instances in the slots.
+	 */
+	interface Slots {
+
+		/**
+		 * @param instance the instance just provided, might be {@code null}
+		 * @return the value stored in the slot for the instance
+		 */
+		Object wrap(Object instance);
+
+		/**
+		 * @param slots    the slots the value was read from
+		 * @param index    the index of the slot the value was read from
+		 * @param value    the value as returned by {@link #wrap(Object)}
+		 * @param provider the {@link Provider} of the slot's instance
+		 * @return the instance for the value or {@link #EMPTY} if the slot
+		 * should be provided again
+		 */
+		Object unwrap(AtomicReferenceArray<Object> slots, int index,
+				Object value, Provider<?> provider);
+
+		/**
+		 * Called when a value that was {@link #unwrap}ped to {@link #EMPTY} is
+		 * claimed to provide the instance again.
+		 */
+		default void cleared() {
+			// by default nothing to do
+		}
+	}
+
+	/**
+	 * {@link Slots} that store the {@link #mask(Object)}ed instance.
+	 */
+	static final Slots MASKED = new Slots() {
+
+		@Override
+		public Object wrap(Object instance) {
+			return mask(instance);
+		}
+
+		@Override
+		public Object unwrap(AtomicReferenceArray<Object> slots, int index,
+				Object value, Provider<?> provider) {
+			return unmask(value);
+		}
+	};
+
+	/**
+	 * Returned by {@link Slots#unwrap} for a slot that no longer has its
+	 * instance.
+	 */
+	static final Object EMPTY = new Object();
+
+	/**
+	 * Marks a {@code null} instance.
+	 */
+	private static final Object NULL = new Object();
+
+	/**
+	 * Returns the instance of the slot, provides it when the slot is empty or
+	 * awaits it when another thread is providing it.
+	 *
+	 * @param slots    the slots of the scope
+	 * @param index    the slot of the instance
+	 * @param dep      the {@link Dependency} resolved
+	 * @param provider the {@link Provider} of the instance
+	 * @param wrapping how the instance is stored in the slot
+	 * @return the slot's instance
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T provide(AtomicReferenceArray<Object> slots, int index,
+			Dependency<?> dep, Provider<T> provider, Slots wrapping) {
+		while (true) {
+			Object obj = slots.get(index);
+			if (obj == null) {
+				Claim claim = new Claim();
+				if (slots.compareAndSet(index, null, claim))
+					return claim.provide(slots, index, provider, wrapping);
+			} else if (isClaim(obj)) {
+				return ((Claim) obj).await(dep);
+			} else {
+				Object instance = wrapping.unwrap(slots, index, obj, provider);
+				if (instance != EMPTY)
+					return (T) instance;
+				Claim claim = new Claim();
+				if (slots.compareAndSet(index, obj, claim)) {
+					wrapping.cleared();
+					return claim.provide(slots, index, provider, wrapping);
+				}
+			}
+		}
+	}
+
+	static boolean isClaim(Object slot) {
+		return slot != null && slot.getClass() == Claim.class;
+	}
+
+	static Object mask(Object instance) {
+		return instance == null ? NULL : instance;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T unmask(Object slot) {
+		return slot == NULL ? null : (T) slot;
+	}
+
+	/**
+	 * Parks the calling thread until the {@link Claim} is completed.
+	 *
+	 * @return the instance as given to {@link #complete(Object)}
+	 * @throws DependencyCycle when called by the thread that claimed the slot
+	 *                         or a thread that the claiming thread (indirectly)
+	 *                         waits for
+	 */
+	<T> T await(Dependency<?> dep) {
+		if (isInitialiser())
+			throw new DependencyCycle(dep, new Locator<>(dep.instance));
+		return await(() -> new DependencyCycle(dep,
+				new Locator<>(dep.instance)));
+	}
+
+	private <T> T provide(AtomicReferenceArray<Object> slots, int index,
+			Provider<T> provider, Slots wrapping) {
+		T instance;
+		Object value;
+		try {
+			instance = provider.provide();
+			value = wrapping.wrap(instance);
+		} catch (Throwable e) {
+			slots.set(index, null); // allows retry
+			fail(e);
+			throw rethrow(e);
+		}
+		slots.set(index, value);
+		complete(instance);
+		return instance;
+	}
+}
@@ -0,0 +1,280 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import static se.jbee.inject.scope.Claim.isClaim;
+import static se.jbee.inject.scope.Claim.mask;
+import static se.jbee.inject.scope.Claim.unmask;
+import static se.jbee.lang.Attempt.rethrow;
+
+/**
+ * A bounded variant of the {@link TypeDependentScope} that evicts the least
+ * recently used instances once it holds more than {@link Bounds#maxEntries}
+ * instances. Optionally instances not used for {@link Bounds#maxIdleNanos}
+ * are evicted as well.
+ * <p>
+ * An evicted instance is just forgotten by the {@link Scope}, when it is
+ * needed again a new instance is provided. This makes the scope a good fit for
+ * instances that are cheap to create and only differ in their {@link
+ * Dependency} like parametrised {@link java.util.List}s, {@link
+ * java.util.Optional}s or {@code Logger}s but not for instances that must be
+ * unique.
+ * <p>
+ * Recency is tracked in terms of a clock that advances with each provided
+ * instance so that a hit does not need to ask for the time or write to a
+ * shared counter. As the clock only advances on misses it is coarse: all
+ * entries used between two misses have the same recency and are evicted in
+ * no particular order among each other. Once the scope grows beyond its
+ * {@link Bounds#maxEntries} one thread evicts the least recently used eighth
+ * of the entries in one go.
+ * <p>
+ * The {@link Scope} can be bound in place of the default dependency based
+ * scopes by setting {@link Env#DEPENDENCY_SCOPE_BOUNDS}.
+ *
+ * @since 8.2
+ */
+public final class EvictingScope implements Scope {
+
+	public static Scope scope(Function<Dependency<?>, ?> injectionKey,
+			Bounds bounds) {
+		return new EvictingScope(injectionKey, bounds);
+	}
+
+	/**
+	 * The limits of an {@link EvictingScope}.
+	 */
+	public static final class Bounds {
+
+		public static Bounds maxEntries(int maxEntries) {
+			return new Bounds(maxEntries, 0L);
+		}
+
+		/**
+		 * The maximum number of instances kept
+		 */
+		public final int maxEntries;
+		/**
+		 * Instances not used for longer than this are evicted, zero for no
+		 * limit
+		 */
+		public final long maxIdleNanos;
+
+		private Bounds(int maxEntries, long maxIdleNanos) {
+			if (maxEntries <= 0)
+				throw new IllegalArgumentException(
+						"Max entries must be positive but was: " + maxEntries);
+			this.maxEntries = maxEntries;
+			this.maxIdleNanos = maxIdleNanos;
+		}
+
+		public Bounds withMaxIdle(long duration, TimeUnit unit) {
+			return new Bounds(maxEntries, unit.toNanos(duration));
+		}
+
+		@Override
+		public String toString() {
+			return "max " + maxEntries + (maxIdleNanos > 0L
+				? " idle " + TimeUnit.NANOSECONDS.toMillis(maxIdleNanos) + "ms"
+				: "");
+		}
+	}
+
+	/**
+	 * A snapshot of the counters of an {@link EvictingScope}.
+	 */
+	public static final class Stats {
+
+		public final long hits;
+		public final long misses;
+		public final long evictions;
+		public final int size;
+
+		Stats(long hits, long misses, long evictions, int size) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+		}
+
+		@Override
+		public String toString() {
+			return "hits: " + hits + " misses: " + misses + " evictions: "
+				+ evictions + " size: " + size;
+		}
+	}
+
+	private static final class Entry {
+
+		final Object instance;
+		volatile long lastUsedTick;
+		volatile long lastUsedNanos;
+
+		Entry(Object instance, long tick, long nanos) {
+			this.instance = instance;
+			this.lastUsedTick = tick;
+			this.lastUsedNanos = nanos;
+		}
+	}
+
+	/**
+	 * An {@link Entry} considered for eviction with the tick it was last used
+	 * at when the eviction started. Sorting on the copied tick keeps the order
+	 * consistent while other threads continue to use the {@link Entry}.
+	 */
+	private static final class Candidate {
+
+		final Object key;
+		final Entry entry;
+		final long lastUsedTick;
+
+		Candidate(Object key, Entry entry) {
+			this.key = key;
+			this.entry = entry;
+			this.lastUsedTick = entry.lastUsedTick;
+		}
+	}
+
+	/**
+	 * Values are either a {@link Claim} (initialisation in progress) or an
+	 * {@link Entry}.
+	 */
+	private final ConcurrentMap<Object, Object> instances = new ConcurrentHashMap<>();
+	private final Function<Dependency<?>, ?> injectionKey;
+	private final Bounds bounds;
+	private final ReentrantLock evicting = new ReentrantLock();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	/**
+	 * The recency clock, concurrent increments may get lost which only makes
+	 * the recency slightly less precise.
+	 */
+	private volatile long tick;
+
+	public EvictingScope(Function<Dependency<?>, ?> injectionKey,
+			Bounds bounds) {
+		this.injectionKey = injectionKey;
+		this.bounds = bounds;
+	}
+
+	public Stats stats() {
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(),
+				instances.size());
+	}
+
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		Object key = injectionKey.apply(dep);
+		while (true) {
+			Object obj = instances.get(key);
+			if (obj == null) {
+				Claim claim = new Claim();
+				if (instances.putIfAbsent(key, claim) == null)
+					return provide(key, claim, provider);
+			} else if (isClaim(obj)) {
+				return ((Claim) obj).await(dep);
+			} else {
+				Entry e = (Entry) obj;
+				if (!isIdle(e, bounds.maxIdleNanos > 0L ? System.nanoTime() : 0L)) {
+					used(e);
+					hits.increment();
+					return unmask(e.instance);
+				}
+				if (instances.remove(key, e))
+					evictions.increment();
+			}
+		}
+	}
+
+	private void used(Entry e) {
+		long now = tick;
+		if (e.lastUsedTick != now)
+			e.lastUsedTick = now;
+		if (bounds.maxIdleNanos > 0L)
+			e.lastUsedNanos = System.nanoTime();
+	}
+
+	private boolean isIdle(Entry e, long now) {
+		return bounds.maxIdleNanos > 0L
+			&& now - e.lastUsedNanos > bounds.maxIdleNanos;
+	}
+
+	private <T> T provide(Object key, Claim claim, Provider<T> provider) {
+		misses.increment();
+		T instance;
+		try {
+			instance = provider.provide();
+		} catch (Throwable e) {
+			instances.remove(key, claim); // allows retry
+			claim.fail(e);
+			throw rethrow(e);
+		}
+		long now = bounds.maxIdleNanos > 0L ? System.nanoTime() : 0L;
+		instances.put(key, new Entry(mask(instance), ++tick, now));
+		claim.complete(instance);
+		if (instances.size() > bounds.maxEntries)
+			evict();
+		return instance;
+	}
+
+	/**
+	 * Removes idle entries and the least recently used entries until the
+	 * scope is an eighth below its {@link Bounds#maxEntries}. Only one thread
+	 * evicts at a time, others just continue.
+	 */
+	private void evict() {
+		if (!evicting.tryLock())
+			return;
+		try {
+			int excess = instances.size() - bounds.maxEntries;
+			if (excess <= 0)
+				return;
+			int target = bounds.maxEntries - bounds.maxEntries / 8;
+			long now = bounds.maxIdleNanos > 0L ? System.nanoTime() : 0L;
+			List<Candidate> candidates = new ArrayList<>(instances.size());
+			for (Map.Entry<Object, Object> e : instances.entrySet()) {
+				Object value = e.getValue();
+				if (value instanceof Entry) {
+					Entry entry = (Entry) value;
+					if (isIdle(entry, now)) {
+						remove(e.getKey(), entry);
+					} else {
+						candidates.add(new Candidate(e.getKey(), entry));
+					}
+				}
+			}
+			int n = instances.size() - target;
+			if (n <= 0)
+				return;
+			candidates.sort((a, b) -> Long.compare(a.lastUsedTick,
+					b.lastUsedTick));
+			for (int i = 0; i < n && i < candidates.size(); i++) {
+				Candidate c = candidates.get(i);
+				remove(c.key, c.entry);
+			}
+		} finally {
+			evicting.unlock();
+		}
+	}
+
+	private void remove(Object key, Entry e) {
+		if (instances.remove(key, e))
+			evictions.increment();
+	}
+
+	@Override
+	public String toString() {
+		return "evicting(" + bounds + ")";
+	}
+}
@@ -0,0 +1,262 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asks the {@link Provider} once per binding like the {@link
+ * ApplicationScope} but does not keep the instance on the heap. Instead it is
+ * encoded by a {@link Codec} and stored in a direct {@link ByteBuffer}. When
+ * the instance is resolved it is decoded again, which either creates a copy
+ * or a lightweight view that reads from the {@link ByteBuffer}.
+ * <p>
+ * This is meant for large immutable read-mostly value graphs that otherwise
+ * would inflate the old generation and with it the garbage collection
+ * pauses. The CPU spend to decode is reduced by a small on-heap cache that
+ * keeps the most recently decoded instances. Instances leave the cache in the
+ * order they were added.
+ * <p>
+ * As instances can be copies they should have value semantics.
+ *
+ * @since 8.2
+ */
+public final class OffHeapScope implements Scope {
+
+	/**
+	 * Converts instances to their off-heap form and back.
+	 */
+	public interface Codec {
+
+		/**
+		 * @param value the instance to store off-heap, never {@code null}
+		 * @return the compact serialised form of the value
+		 */
+		byte[] encode(Object value);
+
+		/**
+		 * @param data a read-only {@link ByteBuffer} with the data as returned
+		 *             by {@link #encode(Object)} that stays valid as long as the
+		 *             {@link OffHeapScope} so it can be used as backing store of
+		 *             a view
+		 * @return the decoded value or a view of it
+		 */
+		Object decode(ByteBuffer data);
+	}
+
+	/**
+	 * A {@link Codec} using java serialisation. Decoding creates a copy.
+	 */
+	public static final Codec SERIALIZATION = new Codec() {
+
+		@Override
+		public byte[] encode(Object value) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(value);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return bytes.toByteArray();
+		}
+
+		@Override
+		public Object decode(ByteBuffer data) {
+			try (ObjectInputStream in = new ObjectInputStream(
+					new ByteBufferInputStream(data))) {
+				return in.readObject();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "serialization";
+		}
+	};
+
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer data;
+
+		ByteBufferInputStream(ByteBuffer data) {
+			this.data = data;
+		}
+
+		@Override
+		public int read() {
+			return data.hasRemaining() ? data.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!data.hasRemaining())
+				return -1;
+			int n = Math.min(len, data.remaining());
+			data.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return data.remaining();
+		}
+	}
+
+	private static final class Entry {
+
+		/**
+		 * The encoded instance, {@code null} for a {@code null} instance
+		 */
+		final ByteBuffer data;
+		/**
+		 * The decoded instance while the {@link Entry} is in the cache
+		 */
+		volatile Object decoded;
+
+		Entry(ByteBuffer data) {
+			this.data = data;
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<OffHeapScope, AtomicReferenceArray> INSTANCES = //
+			AtomicReferenceFieldUpdater.newUpdater(OffHeapScope.class,
+					AtomicReferenceArray.class, "instances");
+
+	private final Codec codec;
+	/**
+	 * The {@link Entry}s that currently have their decoded instance cached in
+	 * the order they were added (as a ring).
+	 */
+	private final AtomicReferenceArray<Entry> cached;
+	private final AtomicInteger nextCached = new AtomicInteger();
+	private final LongAdder decodes = new LongAdder();
+	private final LongAdder offHeapBytes = new LongAdder();
+
+	/**
+	 * Each slot is either {@code null} (uninitialised), a {@link Claim}
+	 * (initialisation in progress) or an {@link Entry}.
+	 */
+	private volatile AtomicReferenceArray<Object> instances;
+
+	private final Claim.Slots entries = new Claim.Slots() {
+
+		@Override
+		public Object wrap(Object instance) {
+			Entry entry = new Entry(instance == null ? null : encode(instance));
+			cache(entry, instance);
+			return entry;
+		}
+
+		@Override
+		public Object unwrap(AtomicReferenceArray<Object> slots, int index,
+				Object value, Provider<?> provider) {
+			return decode((Entry) value);
+		}
+	};
+
+	/**
+	 * @param codec     used to encode and decode instances
+	 * @param cacheSize the maximum number of decoded instances kept on-heap,
+	 *                  zero to not cache
+	 */
+	public OffHeapScope(Codec codec, int cacheSize) {
+		if (cacheSize < 0)
+			throw new IllegalArgumentException(
+					"Cache size must not be negative but was: " + cacheSize);
+		this.codec = codec;
+		this.cached = cacheSize == 0 ? null : new AtomicReferenceArray<>(cacheSize);
+	}
+
+	/**
+	 * @return number of instances decoded so far, each resolve that is not
+	 * served from the on-heap cache decodes
+	 */
+	public long decodes() {
+		return decodes.sum();
+	}
+
+	/**
+	 * @return number of bytes of all encoded instances stored off-heap
+	 */
+	public long offHeapBytes() {
+		return offHeapBytes.sum();
+	}
+
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		AtomicReferenceArray<Object> objs = instances;
+		if (objs == null)
+			objs = instances(resources);
+		return Claim.provide(objs, serialID, dep, provider, entries);
+	}
+
+	@SuppressWarnings("unchecked")
+	private AtomicReferenceArray<Object> instances(int resources) {
+		INSTANCES.compareAndSet(this, null,
+				new AtomicReferenceArray<>(resources));
+		return instances;
+	}
+
+	private ByteBuffer encode(Object instance) {
+		byte[] bytes;
+		try {
+			bytes = codec.encode(instance);
+		} catch (RuntimeException e) {
+			throw new UnresolvableDependency.SupplyFailed(
+					"Failed to encode instance", e);
+		}
+		ByteBuffer data = ByteBuffer.allocateDirect(bytes.length);
+		data.put(bytes);
+		data.flip();
+		offHeapBytes.add(bytes.length);
+		return data;
+	}
+
+	private Object decode(Entry entry) {
+		if (entry.data == null)
+			return null;
+		Object decoded = entry.decoded;
+		if (decoded != null)
+			return decoded;
+		decodes.increment();
+		try {
+			decoded = codec.decode(entry.data.asReadOnlyBuffer());
+		} catch (RuntimeException e) {
+			throw new UnresolvableDependency.SupplyFailed(
+					"Failed to decode instance", e);
+		}
+		cache(entry, decoded);
+		return decoded;
+	}
+
+	/**
+	 * Concurrent decoding of the same {@link Entry} might add it to the cache
+	 * twice which just means it leaves the cache a bit earlier.
+	 */
+	private void cache(Entry entry, Object decoded) {
+		if (cached == null || decoded == null)
+			return;
+		entry.decoded = decoded;
+		int index = Math.floorMod(nextCached.getAndIncrement(),
+				cached.length());
+		Entry replaced = cached.getAndSet(index, entry);
+		if (replaced != null && replaced != entry)
+			replaced.decoded = null;
+	}
+
+	@Override
+	public String toString() {
+		return "off-heap(" + codec + ")";
+	}
+}
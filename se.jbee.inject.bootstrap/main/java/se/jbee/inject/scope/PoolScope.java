@@ -0,0 +1,383 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static se.jbee.inject.scope.Claim.mask;
+import static se.jbee.inject.scope.Claim.unmask;
+
+/**
+ * A {@link Scope} that lends instances from a bounded pool per binding. This
+ * is meant for instances that are expensive to create and not thread-safe
+ * like parsers, {@link java.security.MessageDigest}s, large buffers or
+ * compressors.
+ * <p>
+ * Each time an instance is resolved or injected it is borrowed from the pool
+ * by the current {@link Thread}. When a {@link Thread} is done with the
+ * instances it borrowed it returns all of them by calling {@link
+ * Controller#deallocate()} on the {@link Controller} for the scope. The
+ * {@link Controller} is provided by the scope when it is bound using {@link
+ * Controller#forScope(Name)}. Calling {@link Controller#allocate()} is not
+ * required.
+ * <p>
+ * An instance returned is kept by the {@link Thread} so that it is borrowed
+ * again by the same {@link Thread} without touching the shared pool. The
+ * kept instances of a {@link Thread} have a slot per pool of the scope, not
+ * per {@link Resource} of the {@link Injector}. Should the pool become
+ * exhausted instances kept by other {@link Thread}s are taken back. Only if no instance is available and the pool has {@link
+ * Limits#maxSize} instances the {@link Thread} either waits up to {@link
+ * Limits#maxWaitNanos} for an instance to be returned or fails right away.
+ * <p>
+ * The {@link Scope} is bound for all {@link Scope#pool(String)} names. The
+ * {@link Limits} of each of them are configured using {@link
+ * Env#POOL_LIMITS}.
+ *
+ * @since 8.2
+ */
+public final class PoolScope implements Scope {
+
+	/**
+	 * Time waited for a returned instance before looking for instances kept
+	 * by other {@link Thread}s again.
+	 */
+	private static final long RECLAIM_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * The number of {@link Lender}s below which those of dead {@link Thread}s
+	 * are only released when reclaiming instances.
+	 */
+	private static final int MIN_PRUNE_AT = 16;
+
+	/**
+	 * The size of the pool per binding and the policy used when it is
+	 * exhausted.
+	 */
+	public static final class Limits {
+
+		public static Limits maxSize(int maxSize) {
+			return new Limits(maxSize, 0L);
+		}
+
+		/**
+		 * The maximum number of instances per binding
+		 */
+		public final int maxSize;
+		/**
+		 * Time a {@link Thread} waits for an instance when the pool is
+		 * exhausted, zero to fail right away
+		 */
+		public final long maxWaitNanos;
+
+		private Limits(int maxSize, long maxWaitNanos) {
+			if (maxSize <= 0)
+				throw new IllegalArgumentException(
+						"Max size must be positive but was: " + maxSize);
+			this.maxSize = maxSize;
+			this.maxWaitNanos = maxWaitNanos;
+		}
+
+		public Limits awaiting(long duration, TimeUnit unit) {
+			return new Limits(maxSize, unit.toNanos(duration));
+		}
+
+		@Override
+		public String toString() {
+			return "max " + maxSize + (maxWaitNanos > 0L
+				? " wait " + NANOSECONDS.toMillis(maxWaitNanos) + "ms"
+				: "");
+		}
+	}
+
+	/**
+	 * The instances of a single binding that are not borrowed by any {@link
+	 * Thread} or kept by the {@link Thread} that returned them.
+	 */
+	private static final class Pool {
+
+		/**
+		 * The dense index of the pool among the pools of this scope
+		 */
+		final int index;
+		final LinkedBlockingDeque<Object> idle = new LinkedBlockingDeque<>();
+		final AtomicInteger size = new AtomicInteger();
+		final AtomicInteger waiting = new AtomicInteger();
+
+		Pool(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * The instances a {@link Thread} has borrowed and the ones it has
+	 * returned and keeps for reuse.
+	 */
+	private static final class Lender {
+
+		final Thread owner = Thread.currentThread();
+		final List<Pool> borrowedFrom = new ArrayList<>();
+		final List<Object> borrowed = new ArrayList<>();
+		/**
+		 * The instances kept by {@link Pool#index}. Only the owner adds
+		 * instances and grows the array, other {@link Thread}s just take them.
+		 */
+		private volatile AtomicReferenceArray<Object> kept;
+
+		Lender(int pools) {
+			this.kept = new AtomicReferenceArray<>(Math.max(2, pools));
+		}
+
+		Object take(int index) {
+			AtomicReferenceArray<Object> k = kept;
+			return index < k.length() ? k.getAndSet(index, null) : null;
+		}
+
+		boolean keep(int index, Object instance) {
+			AtomicReferenceArray<Object> k = kept;
+			if (index >= k.length())
+				k = grow(index);
+			return k.compareAndSet(index, null, instance);
+		}
+
+		/**
+		 * Instances are moved so that they are taken either from the old or
+		 * the new array but never from both.
+		 */
+		private AtomicReferenceArray<Object> grow(int index) {
+			AtomicReferenceArray<Object> k = kept;
+			AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(
+					Math.max(index + 1, k.length() * 2));
+			for (int i = 0; i < k.length(); i++)
+				grown.set(i, k.getAndSet(i, null));
+			kept = grown;
+			return grown;
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<PoolScope, AtomicReferenceArray> POOLS = //
+			AtomicReferenceFieldUpdater.newUpdater(PoolScope.class,
+					AtomicReferenceArray.class, "pools");
+
+	private final Limits limits;
+	private final ThreadLocal<Lender> lender = new ThreadLocal<>();
+	private final Set<Lender> lenders = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger poolCount = new AtomicInteger();
+	/**
+	 * The number of {@link Lender}s at which those of dead {@link Thread}s
+	 * are released when adding a {@link Lender}
+	 */
+	private volatile int pruneAt = MIN_PRUNE_AT;
+	/**
+	 * The {@link Pool} for each {@link Resource} by serial ID
+	 */
+	private volatile AtomicReferenceArray<Pool> pools;
+
+	public PoolScope(Limits limits) {
+		this.limits = limits;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		if (dep.type().rawType == Controller.class)
+			return (T) new PoolScopeController();
+		Pool pool = pool(serialID, resources);
+		Lender l = lender();
+		Object instance = l.take(pool.index);
+		if (instance == null)
+			instance = borrow(pool, dep, provider);
+		l.borrowedFrom.add(pool);
+		l.borrowed.add(instance);
+		return unmask(instance);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Pool pool(int serialID, int resources) {
+		AtomicReferenceArray<Pool> ps = pools;
+		if (ps == null) {
+			POOLS.compareAndSet(this, null,
+					new AtomicReferenceArray<>(resources));
+			ps = pools;
+		}
+		Pool pool = ps.get(serialID);
+		if (pool != null)
+			return pool;
+		ps.compareAndSet(serialID, null, new Pool(poolCount.getAndIncrement()));
+		return ps.get(serialID);
+	}
+
+	private Lender lender() {
+		Lender l = lender.get();
+		if (l == null) {
+			l = new Lender(poolCount.get());
+			lender.set(l);
+			lenders.add(l);
+			if (lenders.size() >= pruneAt)
+				prune();
+		}
+		return l;
+	}
+
+	/**
+	 * Releases the {@link Lender}s of dead {@link Thread}s so that they are
+	 * not kept until the pool is exhausted. This is done when the number of
+	 * {@link Lender}s doubled since the last time so that the cost is
+	 * amortised over the {@link Lender}s added.
+	 */
+	private void prune() {
+		for (Lender l : lenders)
+			if (!l.owner.isAlive() && lenders.remove(l))
+				release(l);
+		pruneAt = Math.max(MIN_PRUNE_AT, 2 * lenders.size());
+	}
+
+	private Object borrow(Pool pool, Dependency<?> dep, Provider<?> provider) {
+		Object instance = pool.idle.poll();
+		if (instance != null)
+			return instance;
+		instance = create(pool, provider);
+		if (instance != null)
+			return instance;
+		pool.waiting.incrementAndGet();
+		try {
+			instance = await(pool, provider);
+		} finally {
+			pool.waiting.decrementAndGet();
+		}
+		if (instance != null)
+			return instance;
+		throw new UnresolvableDependency.SupplyFailed("Pool exhausted",
+				new IllegalStateException("All " + limits.maxSize
+					+ " instances of " + dep.instance + " are in use"));
+	}
+
+	/**
+	 * @return a new instance or {@code null} if the pool already has {@link
+	 * Limits#maxSize} instances
+	 */
+	private Object create(Pool pool, Provider<?> provider) {
+		if (pool.size.incrementAndGet() > limits.maxSize) {
+			pool.size.decrementAndGet();
+			return null;
+		}
+		try {
+			return mask(provider.provide());
+		} catch (RuntimeException | Error e) {
+			pool.size.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * While a {@link Thread} is waiting other {@link Thread}s return instances
+	 * to the shared pool. Instances kept before are reclaimed and instances
+	 * given up by dead {@link Thread}s are replaced.
+	 */
+	private Object await(Pool pool, Provider<?> provider) {
+		long deadline = System.nanoTime() + limits.maxWaitNanos;
+		Object instance = reclaimOrCreate(pool, provider);
+		long remaining = limits.maxWaitNanos;
+		try {
+			while (instance == null && remaining > 0L) {
+				instance = pool.idle.poll(
+						Math.min(remaining, RECLAIM_INTERVAL_NANOS),
+						NANOSECONDS);
+				if (instance == null)
+					instance = reclaimOrCreate(pool, provider);
+				remaining = deadline - System.nanoTime();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return instance;
+	}
+
+	private Object reclaimOrCreate(Pool pool, Provider<?> provider) {
+		Object instance = reclaim(pool.index);
+		return instance != null ? instance : create(pool, provider);
+	}
+
+	/**
+	 * Takes back an instance kept by any {@link Thread}. Instances kept by
+	 * {@link Thread}s that are no longer alive are returned to the shared
+	 * pool. Instances they borrowed but never returned are given up so that
+	 * the pool can create new ones in their place.
+	 */
+	private Object reclaim(int index) {
+		for (Lender l : lenders) {
+			Object instance = l.take(index);
+			if (!l.owner.isAlive() && lenders.remove(l))
+				release(l);
+			if (instance != null)
+				return instance;
+		}
+		return null;
+	}
+
+	/**
+	 * Called once for the {@link Lender} of a dead {@link Thread}. As the
+	 * {@link Thread} terminated its borrowed lists can be read safely.
+	 */
+	private void release(Lender l) {
+		AtomicReferenceArray<Pool> ps = pools;
+		for (int i = 0; i < ps.length(); i++) {
+			Pool pool = ps.get(i);
+			Object kept = pool == null ? null : l.take(pool.index);
+			if (kept != null)
+				pool.idle.offer(kept);
+		}
+		for (Pool pool : l.borrowedFrom)
+			pool.size.decrementAndGet();
+		l.borrowedFrom.clear();
+		l.borrowed.clear();
+	}
+
+	/**
+	 * Returns all instances borrowed by the current {@link Thread}. The
+	 * {@link Thread} keeps an instance per binding unless another {@link
+	 * Thread} is waiting for one.
+	 */
+	private void giveBack() {
+		Lender l = lender.get();
+		if (l == null)
+			return;
+		for (int i = 0; i < l.borrowed.size(); i++) {
+			Pool pool = l.borrowedFrom.get(i);
+			Object instance = l.borrowed.get(i);
+			if (pool.waiting.get() > 0
+				|| !l.keep(pool.index, instance))
+				pool.idle.offer(instance);
+		}
+		l.borrowedFrom.clear();
+		l.borrowed.clear();
+	}
+
+	private final class PoolScopeController implements Controller {
+
+		@Override
+		public void allocate() {
+			// instances are borrowed when they are resolved
+		}
+
+		@Override
+		public void deallocate() {
+			giveBack();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "pool(" + limits + ")";
+	}
+}
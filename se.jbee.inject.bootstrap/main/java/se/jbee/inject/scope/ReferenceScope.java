@@ -0,0 +1,139 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import static se.jbee.inject.scope.Claim.isClaim;
+import static se.jbee.inject.scope.Claim.mask;
+import static se.jbee.inject.scope.Claim.unmask;
+
+/**
+ * Asks the {@link Provider} once per binding like the {@link
+ * ApplicationScope} but only holds on to the instance using a {@link
+ * SoftReference} or {@link WeakReference}. Once the garbage collector reclaimed
+ * the instance it is created again the next time it is resolved.
+ * <p>
+ * This is meant for large derived instances like lookup indexes or tables
+ * that can be rebuilt on demand but should not be pinned in the heap.
+ * <p>
+ * The number of instances {@link #reclaimed()} by the garbage collector and
+ * {@link #recreated()} afterwards is counted.
+ *
+ * @since 8.2
+ */
+public final class ReferenceScope implements Scope {
+
+	public static ReferenceScope soft() {
+		return new ReferenceScope(true);
+	}
+
+	public static ReferenceScope weak() {
+		return new ReferenceScope(false);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ReferenceScope, AtomicReferenceArray> INSTANCES = //
+			AtomicReferenceFieldUpdater.newUpdater(ReferenceScope.class,
+					AtomicReferenceArray.class, "instances");
+
+	private final boolean soft;
+	private final ReferenceQueue<Object> reclaimedQueue = new ReferenceQueue<>();
+	private final LongAdder reclaimed = new LongAdder();
+	private final LongAdder recreated = new LongAdder();
+
+	/**
+	 * Each slot is either {@code null} (uninitialised), a {@link Claim}
+	 * (initialisation in progress) or a {@link Reference} to the {@link
+	 * Claim#mask(Object)}ed instance.
+	 */
+	private volatile AtomicReferenceArray<Object> instances;
+
+	private final Claim.Slots references = new Claim.Slots() {
+
+		@Override
+		public Object wrap(Object instance) {
+			Object masked = mask(instance);
+			return soft
+				? new SoftReference<>(masked, reclaimedQueue)
+				: new WeakReference<>(masked, reclaimedQueue);
+		}
+
+		@Override
+		public Object unwrap(AtomicReferenceArray<Object> slots, int index,
+				Object value, Provider<?> provider) {
+			Object instance = ((Reference<?>) value).get();
+			return instance == null ? Claim.EMPTY : unmask(instance);
+		}
+
+		@Override
+		public void cleared() {
+			recreated.increment();
+			countReclaimed();
+		}
+	};
+
+	private ReferenceScope(boolean soft) {
+		this.soft = soft;
+	}
+
+	/**
+	 * @return number of instances the garbage collector has reclaimed so far
+	 */
+	public long reclaimed() {
+		countReclaimed();
+		return reclaimed.sum();
+	}
+
+	/**
+	 * @return number of instances that were created again after they had been
+	 * reclaimed
+	 */
+	public long recreated() {
+		return recreated.sum();
+	}
+
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		AtomicReferenceArray<Object> objs = instances;
+		if (objs == null)
+			objs = instances(resources);
+		return Claim.provide(objs, serialID, dep, provider, references);
+	}
+
+	@Override
+	public <T> T lookup(int serialID, Dependency<? super T> dep) {
+		AtomicReferenceArray<Object> objs = instances;
+		if (objs == null)
+			return null;
+		Object obj = objs.get(serialID);
+		if (obj == null || isClaim(obj))
+			return null;
+		Object instance = ((Reference<?>) obj).get();
+		return instance == null ? null : unmask(instance);
+	}
+
+	@SuppressWarnings("unchecked")
+	private AtomicReferenceArray<Object> instances(int resources) {
+		INSTANCES.compareAndSet(this, null,
+				new AtomicReferenceArray<>(resources));
+		return instances;
+	}
+
+	private void countReclaimed() {
+		while (reclaimedQueue.poll() != null)
+			reclaimed.increment();
+	}
+
+	@Override
+	public String toString() {
+		return soft ? "soft" : "weak";
+	}
+}
@@ -0,0 +1,308 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Provider;
+import se.jbee.inject.Scope;
+import se.jbee.inject.UnresolvableDependency;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * A {@link Scope} for a unit of work, like a request in a HTTP server, that
+ * explicitly {@link #begin()}s and {@link Request#close()}s (ends) in the
+ * {@link Thread} handling the request.
+ * <p>
+ * In contrast to the {@link WorkerScope} the instances of a {@link Request}
+ * are kept in a plain array as long as the {@link Request} is confined to the
+ * {@link Thread} that began it. Only once it is {@link
+ * Request#share(Runnable)}d with other {@link Thread}s access is synchronised.
+ * The arrays are cleared and recycled for later {@link Request}s when a
+ * {@link Request} is ended by the {@link Thread} that began it. When ended by
+ * another {@link Thread} the owner might still be using the array without
+ * synchronisation so it is left to the garbage collector.
+ * <p>
+ * {@link AutoCloseable} instances created within a {@link Request} are closed
+ * when it ends in reverse order of their creation.
+ * <p>
+ * A {@link Request} can also be begun and ended using the scope's {@link
+ * Controller}.
+ *
+ * @since 8.2
+ */
+public final class RequestScope implements Scope {
+
+	/**
+	 * The maximum number of cleared instance arrays kept for reuse.
+	 */
+	private static final int MAX_IDLE_SLOTS = 64;
+
+	private final ThreadLocal<Request> current = new ThreadLocal<>();
+	private final BlockingQueue<Object[]> idleSlots = new ArrayBlockingQueue<>(
+			MAX_IDLE_SLOTS);
+
+	/**
+	 * Begins a new {@link Request} for the current {@link Thread}.
+	 *
+	 * @return the {@link Request} begun, use {@link Request#close()} to end it
+	 * @throws IllegalStateException in case the current {@link Thread} has a
+	 *                               {@link Request} that was not ended
+	 */
+	public Request begin() {
+		Request before = current.get();
+		if (before != null && !before.isEnded())
+			throw new IllegalStateException("Request was not ended.");
+		Request request = new Request(Thread.currentThread());
+		current.set(request);
+		return request;
+	}
+
+	/**
+	 * @return the {@link Request} of the current {@link Thread} or {@code
+	 * null} if there is none or it has been ended by another {@link Thread}
+	 */
+	public Request current() {
+		Request request = current.get();
+		return request == null || request.isEnded() ? null : request;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		if (dep.type().rawType == Controller.class)
+			return (T) new RequestScopeController();
+		Request request = current.get();
+		if (request == null)
+			throw new UnresolvableDependency.SupplyFailed("Scope error",
+					new IllegalStateException("Request was not begun."));
+		return request.provide(serialID, resources, provider);
+	}
+
+	@Override
+	public <T> T lookup(int serialID, Dependency<? super T> dep) {
+		Request request = current.get();
+		return request == null ? null : request.lookup(serialID);
+	}
+
+	private Object[] slots(int resources) {
+		Object[] slots = idleSlots.poll();
+		return slots != null && slots.length >= resources
+			? slots
+			: new Object[resources];
+	}
+
+	private static UnresolvableDependency.SupplyFailed requestEnded() {
+		return new UnresolvableDependency.SupplyFailed("Scope error",
+				new IllegalStateException("Request has ended."));
+	}
+
+	/**
+	 * The instances of a unit of work.
+	 */
+	public final class Request implements AutoCloseable {
+
+		private final Thread owner;
+		private volatile boolean shared;
+		private boolean ended;
+		private Object[] instances;
+		/**
+		 * Concurrent as the owner might add to it without synchronisation
+		 * while another {@link Thread} ends the {@link Request}.
+		 */
+		private volatile Deque<AutoCloseable> closeables;
+
+		Request(Thread owner) {
+			this.owner = owner;
+		}
+
+		/**
+		 * Wraps the task so that it runs as part of this {@link Request} when
+		 * it is run by another {@link Thread}. From then on the {@link
+		 * Request} is no longer confined to the {@link Thread} that began it.
+		 * <p>
+		 * This should be called by the {@link Thread} that currently works
+		 * with the {@link Request} before handing the task to another {@link
+		 * Thread}.
+		 *
+		 * @param task the task to run as part of this {@link Request}
+		 * @return the wrapped task
+		 */
+		public Runnable share(Runnable task) {
+			shared = true;
+			return () -> {
+				Request before = current.get();
+				current.set(this);
+				try {
+					task.run();
+				} finally {
+					if (before == null) {
+						current.remove();
+					} else {
+						current.set(before);
+					}
+				}
+			};
+		}
+
+		/**
+		 * @return true once this {@link Request} has been {@link #close()}d
+		 */
+		public boolean isEnded() {
+			if (isConfined())
+				return ended;
+			synchronized (this) {
+				return ended;
+			}
+		}
+
+		/**
+		 * Ends the {@link Request}. All {@link AutoCloseable} instances
+		 * created within the {@link Request} are closed in reverse order of
+		 * their creation. Failing to close an instance does not stop closing
+		 * the others.
+		 * <p>
+		 * When ended by another {@link Thread} than the one that began it the
+		 * {@link Request} stays current for the owner until it begins the next
+		 * one but can no longer be used.
+		 *
+		 * @throws IllegalStateException in case any of the instances failed to
+		 *                               close, failures of other instances are
+		 *                               added as suppressed exceptions
+		 */
+		@Override
+		public void close() {
+			if (current.get() == this)
+				current.remove();
+			if (Thread.currentThread() != owner)
+				shared = true; // owner must see the end
+			if (isConfined()) {
+				end();
+			} else {
+				synchronized (this) {
+					end();
+				}
+			}
+		}
+
+		<T> T provide(int serialID, int resources, Provider<T> provider) {
+			if (!isConfined()) {
+				synchronized (this) {
+					return provideConfined(serialID, resources, provider);
+				}
+			}
+			T res = provideConfined(serialID, resources, provider);
+			if (shared) {
+				// might have been ended by another thread meanwhile
+				synchronized (this) {
+					if (ended) {
+						closeAll();
+						throw requestEnded();
+					}
+				}
+			}
+			return res;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T lookup(int serialID) {
+			if (isConfined())
+				return ended || instances == null
+					? null
+					: (T) instances[serialID];
+			synchronized (this) {
+				return ended || instances == null
+					? null
+					: (T) instances[serialID];
+			}
+		}
+
+		private boolean isConfined() {
+			return !shared && Thread.currentThread() == owner;
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T provideConfined(int serialID, int resources,
+				Provider<T> provider) {
+			if (ended)
+				throw requestEnded();
+			if (instances == null)
+				instances = slots(resources);
+			Object res = instances[serialID];
+			if (res == null) {
+				res = provider.provide();
+				instances[serialID] = res;
+				if (res instanceof AutoCloseable) {
+					Deque<AutoCloseable> cs = closeables;
+					if (cs == null) {
+						cs = new ConcurrentLinkedDeque<>();
+						closeables = cs;
+					}
+					cs.add((AutoCloseable) res);
+				}
+			}
+			return (T) res;
+		}
+
+		private void end() {
+			if (ended)
+				return;
+			ended = true;
+			try {
+				closeAll();
+			} finally {
+				// only the owner can be sure not to use the array concurrently
+				if (instances != null && Thread.currentThread() == owner) {
+					Arrays.fill(instances, null);
+					idleSlots.offer(instances);
+					instances = null;
+				}
+			}
+		}
+
+		/**
+		 * Closes all {@link AutoCloseable}s not closed so far in reverse order
+		 * of their creation.
+		 */
+		private void closeAll() {
+			Deque<AutoCloseable> cs = closeables;
+			if (cs == null)
+				return;
+			IllegalStateException failure = null;
+			AutoCloseable c = cs.pollLast();
+			while (c != null) {
+				try {
+					c.close();
+				} catch (Exception e) {
+					if (failure == null) {
+						failure = new IllegalStateException(
+								"Failed to close request scoped instance", e);
+					} else {
+						failure.addSuppressed(e);
+					}
+				}
+				c = cs.pollLast();
+			}
+			if (failure != null)
+				throw failure;
+		}
+	}
+
+	private final class RequestScopeController implements Controller {
+
+		@Override
+		public void allocate() {
+			begin();
+		}
+
+		@Override
+		public void deallocate() {
+			Request request = current.get();
+			if (request != null)
+				request.close();
+		}
+	}
+}
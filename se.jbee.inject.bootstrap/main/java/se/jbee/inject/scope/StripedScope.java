@@ -0,0 +1,140 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Instance.defaultInstanceOf;
+import static se.jbee.inject.Resource.resourceTypeOf;
+import static se.jbee.inject.scope.Claim.MASKED;
+import static se.jbee.inject.scope.Claim.isClaim;
+import static se.jbee.inject.scope.Claim.unmask;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * Asks the {@link Provider} once per stripe per binding. Each {@link Thread}
+ * uses the stripe derived from its id so that write-heavy shared instances
+ * like counters, histograms or id generators are spread over a number of
+ * instances in the same way a {@link java.util.concurrent.atomic.LongAdder}
+ * spreads its cells.
+ * <p>
+ * The number of stripes is rounded up to a power of two. By default it is
+ * the number of available processors, it can be changed using {@link
+ * Env#STRIPES}.
+ * <p>
+ * To aggregate the stripes they can be injected as array by binding the
+ * array type to the {@link #stripesOf(Instance)} {@link Supplier}. The array
+ * contains the stripes created so far so it should be bound in the {@link
+ * Scope#injection} scope.
+ *
+ * @since 8.2
+ */
+public final class StripedScope implements Scope {
+
+	/**
+	 * @param type the type of the striped binding
+	 * @return a {@link Supplier} for an array of the stripes created so far
+	 */
+	public static <T> Supplier<T[]> stripesOf(Class<T> type) {
+		return stripesOf(defaultInstanceOf(raw(type)));
+	}
+
+	/**
+	 * @param instance the {@link Instance} of the striped binding, it is
+	 *                 resolved to the {@link Resource} of the binding so that
+	 *                 the stripes are those of the binding no matter which
+	 *                 type they were resolved as
+	 * @return a {@link Supplier} for an array of the stripes created so far
+	 */
+	public static <T> Supplier<T[]> stripesOf(Instance<T> instance) {
+		Dependency<Resource<T>> resource = dependency(
+				resourceTypeOf(instance.type)).named(instance.name);
+		return (dep, context) -> ((StripedScope) context.resolve(
+				Scope.striped, Scope.class)).stripes(context.resolve(resource));
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<StripedScope, AtomicReferenceArray> INSTANCES = //
+			AtomicReferenceFieldUpdater.newUpdater(StripedScope.class,
+					AtomicReferenceArray.class, "instances");
+
+	private final int stripeMask;
+	/**
+	 * Each slot is either {@code null} (no stripe created yet) or an array of
+	 * stripes. Each stripe is either {@code null} (uninitialised), a {@link
+	 * Claim} (initialisation in progress) or the {@link Claim#mask(Object)}ed
+	 * instance.
+	 */
+	private volatile AtomicReferenceArray<AtomicReferenceArray<Object>> instances;
+
+	public StripedScope(int stripes) {
+		if (stripes <= 0)
+			throw new IllegalArgumentException(
+					"Stripes must be positive but was: " + stripes);
+		this.stripeMask = stripes == 1
+			? 0
+			: (Integer.highestOneBit(stripes - 1) << 1) - 1;
+	}
+
+	public int stripes() {
+		return stripeMask + 1;
+	}
+
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		AtomicReferenceArray<Object> stripes = stripes(serialID, resources);
+		int stripe = (int) Thread.currentThread().getId() & stripeMask;
+		Object obj = stripes.get(stripe);
+		if (obj != null && !isClaim(obj))
+			return unmask(obj);
+		return Claim.provide(stripes, stripe, dep, provider, MASKED);
+	}
+
+	@SuppressWarnings("unchecked")
+	private AtomicReferenceArray<Object> stripes(int serialID, int resources) {
+		AtomicReferenceArray<AtomicReferenceArray<Object>> objs = instances;
+		if (objs == null) {
+			INSTANCES.compareAndSet(this, null,
+					new AtomicReferenceArray<>(resources));
+			objs = instances;
+		}
+		AtomicReferenceArray<Object> stripes = objs.get(serialID);
+		if (stripes != null)
+			return stripes;
+		objs.compareAndSet(serialID, null, new AtomicReferenceArray<>(stripeMask + 1));
+		return objs.get(serialID);
+	}
+
+	/**
+	 * @param resource the striped binding
+	 * @return the stripes of the binding created so far
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T[] stripes(Resource<T> resource) {
+		Class<T> type = resource.type().rawType;
+		AtomicReferenceArray<AtomicReferenceArray<Object>> objs = instances;
+		AtomicReferenceArray<Object> stripes = objs == null
+			? null
+			: objs.get(resource.serialID);
+		if (stripes == null)
+			return (T[]) Array.newInstance(type, 0);
+		List<T> res = new ArrayList<>(stripes.length());
+		for (int i = 0; i < stripes.length(); i++) {
+			Object obj = stripes.get(i);
+			if (obj != null && !isClaim(obj))
+				res.add(unmask(obj));
+		}
+		return res.toArray((T[]) Array.newInstance(type, res.size()));
+	}
+
+	@Override
+	public String toString() {
+		return "striped(" + stripes() + ")";
+	}
+}
@@ -0,0 +1,274 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static se.jbee.inject.scope.Claim.isClaim;
+import static se.jbee.inject.scope.Claim.mask;
+import static se.jbee.inject.scope.Claim.unmask;
+
+/**
+ * Asks the {@link Provider} once per binding per tenant. The tenant is
+ * identified by the key returned by the {@link Tenancy#tenantKey} {@link
+ * Supplier} which usually extracts it from the request currently processed.
+ * Within a tenant instances are singletons like in the {@link
+ * ApplicationScope}.
+ * <p>
+ * Each tenant has its own array of slots that is looked up by tenant key in a
+ * {@link ConcurrentHashMap} which already locks per hash bin so that tenants
+ * do not contend with each other. A tenant can be {@link #evict(Object)}ed as
+ * a whole by removing its entry. When more than {@link
+ * Tenancy#maxResidentTenants} are resident the least recently used tenants
+ * are evicted in the same way as the {@link EvictingScope} evicts instances.
+ * An evicted tenant is just forgotten, its instances are provided again the
+ * next time they are needed.
+ * <p>
+ * The number of {@link #instanceCounts()} per tenant can be used for capacity
+ * planning.
+ *
+ * @since 8.2
+ */
+public final class TenantScope implements Scope {
+
+	/**
+	 * The configuration of a {@link TenantScope}.
+	 */
+	public static final class Tenancy {
+
+		public static Tenancy keyedBy(Supplier<?> tenantKey) {
+			return new Tenancy(tenantKey, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Returns the key of the tenant the current {@link Thread} works for
+		 */
+		public final Supplier<?> tenantKey;
+		/**
+		 * The maximum number of tenants that keep their instances
+		 */
+		public final int maxResidentTenants;
+
+		private Tenancy(Supplier<?> tenantKey, int maxResidentTenants) {
+			if (maxResidentTenants <= 0)
+				throw new IllegalArgumentException(
+						"Max resident tenants must be positive but was: "
+							+ maxResidentTenants);
+			this.tenantKey = tenantKey;
+			this.maxResidentTenants = maxResidentTenants;
+		}
+
+		public Tenancy withMaxResident(int maxResidentTenants) {
+			return new Tenancy(tenantKey, maxResidentTenants);
+		}
+
+		@Override
+		public String toString() {
+			return maxResidentTenants == Integer.MAX_VALUE
+				? "tenants"
+				: "max " + maxResidentTenants + " tenants";
+		}
+	}
+
+	private static final class Tenant implements Claim.Slots {
+
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<Tenant, AtomicReferenceArray> INSTANCES = //
+				AtomicReferenceFieldUpdater.newUpdater(Tenant.class,
+						AtomicReferenceArray.class, "instances");
+
+		/**
+		 * Each slot is either {@code null} (uninitialised), a {@link Claim}
+		 * (initialisation in progress) or the {@link Claim#mask(Object)}ed
+		 * instance.
+		 */
+		volatile AtomicReferenceArray<Object> instances;
+		volatile long lastUsedTick;
+		final AtomicInteger size = new AtomicInteger();
+
+		Tenant(long tick) {
+			this.lastUsedTick = tick;
+		}
+
+		@SuppressWarnings("unchecked")
+		AtomicReferenceArray<Object> instances(int resources) {
+			AtomicReferenceArray<Object> objs = instances;
+			if (objs != null)
+				return objs;
+			INSTANCES.compareAndSet(this, null,
+					new AtomicReferenceArray<>(resources));
+			return instances;
+		}
+
+		@Override
+		public Object wrap(Object instance) {
+			size.incrementAndGet();
+			return mask(instance);
+		}
+
+		@Override
+		public Object unwrap(AtomicReferenceArray<Object> slots, int index,
+				Object value, Provider<?> provider) {
+			return unmask(value);
+		}
+	}
+
+	/**
+	 * A {@link Tenant} considered for eviction with the tick it was last used
+	 * at when the eviction started so that the sort order stays consistent
+	 * while other threads continue to use the {@link Tenant}.
+	 */
+	private static final class Candidate {
+
+		final Object key;
+		final Tenant tenant;
+		final long lastUsedTick;
+
+		Candidate(Object key, Tenant tenant) {
+			this.key = key;
+			this.tenant = tenant;
+			this.lastUsedTick = tenant.lastUsedTick;
+		}
+	}
+
+	private final ConcurrentMap<Object, Tenant> tenants = new ConcurrentHashMap<>();
+	private final Tenancy tenancy;
+	private final ReentrantLock evicting = new ReentrantLock();
+	private final LongAdder evictions = new LongAdder();
+	/**
+	 * The recency clock. It is incremented without synchronisation by all
+	 * threads when they switch tenants. Concurrent increments may get lost
+	 * which is acceptable as it only makes the recency slightly less precise.
+	 */
+	private volatile long tick;
+
+	public TenantScope(Tenancy tenancy) {
+		this.tenancy = tenancy;
+	}
+
+	/**
+	 * Forgets all instances of the given tenant.
+	 *
+	 * @param tenantKey the tenant to evict
+	 * @return true if the tenant was resident, else false
+	 */
+	public boolean evict(Object tenantKey) {
+		if (tenants.remove(tenantKey) == null)
+			return false;
+		evictions.increment();
+		return true;
+	}
+
+	/**
+	 * @return the keys of the currently resident tenants
+	 */
+	public Set<Object> tenants() {
+		return new HashSet<>(tenants.keySet());
+	}
+
+	/**
+	 * @return number of instances per currently resident tenant
+	 */
+	public Map<Object, Integer> instanceCounts() {
+		Map<Object, Integer> counts = new HashMap<>();
+		for (Map.Entry<Object, Tenant> e : tenants.entrySet())
+			counts.put(e.getKey(), e.getValue().size.get());
+		return counts;
+	}
+
+	/**
+	 * @return number of tenants evicted so far, explicitly or to limit the
+	 * resident tenants
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		Object key = tenancy.tenantKey.get();
+		if (key == null)
+			throw new UnresolvableDependency.SupplyFailed("Scope error",
+					new IllegalStateException("No current tenant"));
+		Tenant tenant = tenant(key);
+		return Claim.provide(tenant.instances(resources), serialID, dep,
+				provider, tenant);
+	}
+
+	@Override
+	public <T> T lookup(int serialID, Dependency<? super T> dep) {
+		Object key = tenancy.tenantKey.get();
+		Tenant tenant = key == null ? null : tenants.get(key);
+		AtomicReferenceArray<Object> objs = tenant == null
+			? null
+			: tenant.instances;
+		if (objs == null)
+			return null;
+		Object obj = objs.get(serialID);
+		return obj == null || isClaim(obj) ? null : unmask(obj);
+	}
+
+	/**
+	 * @param key the current tenant key, evaluated once by the caller
+	 */
+	private Tenant tenant(Object key) {
+		Tenant tenant = tenants.get(key);
+		if (tenant == null) {
+			// racy increment, see tick
+			tenant = tenants.computeIfAbsent(key, k -> new Tenant(++tick));
+			if (tenants.size() > tenancy.maxResidentTenants)
+				evict();
+			return tenant;
+		}
+		if (tenant.lastUsedTick != tick)
+			tenant.lastUsedTick = ++tick; // racy, only advances when tenants change
+		return tenant;
+	}
+
+	/**
+	 * Removes the least recently used tenants until the scope is an eighth
+	 * below its {@link Tenancy#maxResidentTenants}. Only one thread evicts at a
+	 * time, others just continue.
+	 */
+	private void evict() {
+		if (!evicting.tryLock())
+			return;
+		try {
+			int max = tenancy.maxResidentTenants;
+			int n = tenants.size() - (max - max / 8);
+			if (tenants.size() <= max || n <= 0)
+				return;
+			List<Candidate> candidates = new ArrayList<>(tenants.size());
+			for (Map.Entry<Object, Tenant> e : tenants.entrySet())
+				candidates.add(new Candidate(e.getKey(), e.getValue()));
+			candidates.sort((a, b) -> Long.compare(a.lastUsedTick,
+					b.lastUsedTick));
+			for (int i = 0; i < n && i < candidates.size(); i++) {
+				Candidate c = candidates.get(i);
+				if (tenants.remove(c.key, c.tenant))
+					evictions.increment();
+			}
+		} finally {
+			evicting.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "tenant(" + tenancy + ")";
+	}
+}
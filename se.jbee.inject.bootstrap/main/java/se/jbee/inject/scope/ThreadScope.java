@@ -2,28 +2,243 @@ package se.jbee.inject.scope;
 
 import se.jbee.inject.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static java.lang.invoke.MethodType.methodType;
+
 /**
  * Asks the {@link Provider} once per thread per {@link Resource} which is
  * understand commonly as a usual 'per-thread' singleton.
+ * <p>
+ * Each {@link Thread} only stores the instances of {@link Resource}s that are
+ * used in this scope. The first time a {@link Resource} is used in the scope
+ * it is assigned the next free slot index so that the instances of a {@link
+ * Thread} are kept in a dense array that just grows with the number of
+ * {@link Resource}s actually used by the {@link Thread}. This keeps the
+ * footprint low when there are many threads, like virtual threads.
+ * <p>
+ * Usually the instances of a {@link Thread} are carried by a {@link
+ * ThreadLocal}. Tasks run using {@link #run(Runnable)} get their own
+ * instances that are carried by a {@code java.lang.ScopedValue} on runtimes
+ * that support them and are discarded at the end of the task.
  */
 public final class ThreadScope implements Scope {
 
-	private final ThreadLocal<Object[]> instances = new ThreadLocal<>();
+	/**
+	 * The instances of a {@link Thread} indexed by the remapped slot index.
+	 */
+	private static final class Slots {
+
+		Object[] instances;
+
+		Slots(int size) {
+			this.instances = new Object[Math.max(2, size)];
+		}
+
+		Object[] grow(int index) {
+			instances = Arrays.copyOf(instances,
+					Math.max(index + 1, instances.length * 2));
+			return instances;
+		}
+	}
+
+	/**
+	 * Access to {@code java.lang.ScopedValue} by reflection so that the
+	 * scope stays compatible with runtimes that do not have them.
+	 */
+	private static final class ScopedValues {
+
+		static final MethodHandle NEW_INSTANCE;
+		static final MethodHandle IS_BOUND;
+		static final MethodHandle GET;
+		static final MethodHandle WHERE;
+		static final MethodHandle RUN;
+
+		static {
+			MethodHandle newInstance = null;
+			MethodHandle isBound = null;
+			MethodHandle get = null;
+			MethodHandle where = null;
+			MethodHandle run = null;
+			try {
+				Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+				Class<?> carrier = Class.forName(
+						"java.lang.ScopedValue$Carrier");
+				MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				newInstance = lookup.findStatic(scopedValue, "newInstance",
+						methodType(scopedValue)).asType(methodType(Object.class));
+				isBound = lookup.findVirtual(scopedValue, "isBound",
+						methodType(boolean.class)).asType(
+						methodType(boolean.class, Object.class));
+				get = lookup.findVirtual(scopedValue, "get",
+						methodType(Object.class)).asType(
+						methodType(Object.class, Object.class));
+				where = lookup.findStatic(scopedValue, "where",
+						methodType(carrier, scopedValue, Object.class)).asType(
+						methodType(Object.class, Object.class, Object.class));
+				run = lookup.findVirtual(carrier, "run",
+						methodType(void.class, Runnable.class)).asType(
+						methodType(void.class, Object.class, Runnable.class));
+				Object probe = newInstance.invokeExact();
+				if ((boolean) isBound.invokeExact(probe))
+					throw new IllegalStateException();
+			} catch (Throwable e) {
+				// not supported (or preview not enabled), use ThreadLocal
+				newInstance = null;
+			}
+			NEW_INSTANCE = newInstance;
+			IS_BOUND = isBound;
+			GET = get;
+			WHERE = where;
+			RUN = run;
+		}
+
+		static boolean isSupported() {
+			return NEW_INSTANCE != null;
+		}
+
+		static Object newInstance() {
+			try {
+				return NEW_INSTANCE.invokeExact();
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		static Slots get(Object key) {
+			try {
+				return (boolean) IS_BOUND.invokeExact(key)
+					? (Slots) (Object) GET.invokeExact(key)
+					: null;
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		static void run(Object key, Slots value, Runnable task) {
+			try {
+				Object carrier = WHERE.invokeExact(key, (Object) value);
+				RUN.invokeExact(carrier, task);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		private static RuntimeException rethrow(Throwable e) {
+			if (e instanceof RuntimeException)
+				return (RuntimeException) e;
+			if (e instanceof Error)
+				throw (Error) e;
+			return new UndeclaredThrowableException(e);
+		}
+	}
+
+	private static final AtomicReferenceFieldUpdater<ThreadScope, AtomicIntegerArray> INDEXES = //
+			AtomicReferenceFieldUpdater.newUpdater(ThreadScope.class,
+					AtomicIntegerArray.class, "indexes");
+
+	private final ThreadLocal<Slots> instances = new ThreadLocal<>();
+	private final Object scopedInstances = ScopedValues.isSupported()
+		? ScopedValues.newInstance()
+		: null;
+	private final AtomicInteger slots = new AtomicInteger();
+
+	/**
+	 * The slot index plus one for each {@link Resource} used in this scope,
+	 * zero for {@link Resource}s not used so far.
+	 */
+	private volatile AtomicIntegerArray indexes;
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
 			Provider<T> provider) throws UnresolvableDependency {
-		Object[] objects = instances.get();
-		if (objects == null) {
-			objects = new Object[resources];
-			instances.set(objects);
+		int index = index(serialID, resources);
+		Slots slots = slots();
+		if (slots == null) {
+			slots = new Slots(this.slots.get());
+			instances.set(slots);
 		}
-		Object res = objects[serialID];
+		Object[] objects = slots.instances;
+		if (index >= objects.length)
+			objects = slots.grow(index);
+		Object res = objects[index];
 		if (res == null) {
 			res = provider.provide();
-			objects[serialID] = res;
+			slots.instances[index] = res;
 		}
 		return (T) res;
 	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T lookup(int serialID, Dependency<? super T> dep) {
+		AtomicIntegerArray idx = indexes;
+		if (idx == null)
+			return null;
+		int index = idx.get(serialID) - 1;
+		if (index < 0)
+			return null;
+		Slots slots = slots();
+		if (slots == null || index >= slots.instances.length)
+			return null;
+		return (T) slots.instances[index];
+	}
+
+	/**
+	 * Runs the task in the current {@link Thread} with its own set of thread
+	 * scoped instances that are discarded at the end of the task. This is
+	 * meant for (virtual) threads that run a single task so that the
+	 * instances do not need to be carried by a {@link ThreadLocal} when the
+	 * runtime supports {@code java.lang.ScopedValue}s.
+	 *
+	 * @param task the task to run
+	 * @since 8.2
+	 */
+	public void run(Runnable task) {
+		Slots taskSlots = new Slots(slots.get());
+		if (scopedInstances != null) {
+			ScopedValues.run(scopedInstances, taskSlots, task);
+			return;
+		}
+		Slots before = instances.get();
+		instances.set(taskSlots);
+		try {
+			task.run();
+		} finally {
+			if (before == null) {
+				instances.remove();
+			} else {
+				instances.set(before);
+			}
+		}
+	}
+
+	private Slots slots() {
+		if (scopedInstances != null) {
+			Slots slots = ScopedValues.get(scopedInstances);
+			if (slots != null)
+				return slots;
+		}
+		return instances.get();
+	}
+
+	private int index(int serialID, int resources) {
+		AtomicIntegerArray idx = indexes;
+		if (idx == null) {
+			INDEXES.compareAndSet(this, null, new AtomicIntegerArray(resources));
+			idx = indexes;
+		}
+		int index = idx.get(serialID);
+		if (index > 0)
+			return index - 1;
+		idx.compareAndSet(serialID, 0, slots.incrementAndGet());
+		return idx.get(serialID) - 1;
+	}
 }
@@ -0,0 +1,224 @@
+package se.jbee.inject.scope;
+
+import se.jbee.inject.*;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.LongSupplier;
+
+import static se.jbee.inject.scope.Claim.mask;
+import static se.jbee.inject.scope.Claim.unmask;
+import static se.jbee.lang.Attempt.rethrow;
+
+/**
+ * Asks the {@link Provider} once per binding and keeps the instance for the
+ * {@link Expiry#ttlNanos} of the {@link Expiry}. This is meant for instances
+ * that are expensive to create and need to be renewed periodically like
+ * token sets, routing tables or parsed configuration files.
+ * <p>
+ * Once an instance is older than its time to live minus the {@link
+ * Expiry#refreshAheadNanos} the first thread asking for it starts a refresh
+ * using the {@link Executor} while it and all other threads continue to get
+ * the current instance. Only when an instance has not been refreshed in time
+ * the thread asking for it refreshes it itself. Threads asking while a
+ * refresh is in progress are never blocked and get the current instance.
+ * <p>
+ * Should a refresh fail the current instance is kept and the refresh is
+ * retried after {@link Expiry#retryNanos}.
+ * <p>
+ * The {@link Scope} is bound for all {@link Scope#ttl(String)} names. The
+ * {@link Expiry} of each of them is configured using {@link Env#TTL_EXPIRY}.
+ * Time is measured using {@link System#nanoTime()} unless another clock is
+ * set using {@link Env#TTL_CLOCK}.
+ *
+ * @since 8.2
+ */
+public final class TimeToLiveScope implements Scope {
+
+	/**
+	 * The durations an instance is kept and refreshed.
+	 */
+	public static final class Expiry {
+
+		public static Expiry after(long duration, TimeUnit unit) {
+			long ttl = unit.toNanos(duration);
+			return new Expiry(ttl, 0L, ttl / 10);
+		}
+
+		/**
+		 * Time an instance is used before it has to be refreshed
+		 */
+		public final long ttlNanos;
+		/**
+		 * Time before the end of {@link #ttlNanos} when the instance is
+		 * refreshed asynchronously, zero when it is refreshed once expired
+		 */
+		public final long refreshAheadNanos;
+		/**
+		 * Time until a failed refresh is retried, by default a tenth of the
+		 * {@link #ttlNanos}
+		 */
+		public final long retryNanos;
+
+		private Expiry(long ttlNanos, long refreshAheadNanos,
+				long retryNanos) {
+			if (ttlNanos <= 0L)
+				throw new IllegalArgumentException(
+						"Time to live must be positive but was: " + ttlNanos);
+			if (refreshAheadNanos < 0L || refreshAheadNanos >= ttlNanos)
+				throw new IllegalArgumentException(
+						"Refresh ahead must be less than time to live but was: "
+							+ refreshAheadNanos);
+			this.ttlNanos = ttlNanos;
+			this.refreshAheadNanos = refreshAheadNanos;
+			this.retryNanos = retryNanos;
+		}
+
+		public Expiry refreshAhead(long duration, TimeUnit unit) {
+			return new Expiry(ttlNanos, unit.toNanos(duration), retryNanos);
+		}
+
+		public Expiry retryAfter(long duration, TimeUnit unit) {
+			return new Expiry(ttlNanos, refreshAheadNanos,
+					unit.toNanos(duration));
+		}
+
+		@Override
+		public String toString() {
+			return "ttl " + TimeUnit.NANOSECONDS.toMillis(ttlNanos) + "ms";
+		}
+	}
+
+	private static final class Entry {
+
+		private static final AtomicIntegerFieldUpdater<Entry> REFRESHING = //
+				AtomicIntegerFieldUpdater.newUpdater(Entry.class, "refreshing");
+
+		final Object instance;
+		final long expiresAt;
+		/**
+		 * The time after which the next refresh is attempted
+		 */
+		volatile long refreshAt;
+		volatile int refreshing;
+
+		Entry(Object instance, long created, Expiry expiry) {
+			this.instance = instance;
+			this.expiresAt = created + expiry.ttlNanos;
+			this.refreshAt = expiresAt - expiry.refreshAheadNanos;
+		}
+
+		boolean claimRefresh() {
+			return REFRESHING.compareAndSet(this, 0, 1);
+		}
+
+		void refreshFailed(long retryAt) {
+			refreshAt = retryAt;
+			refreshing = 0;
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<TimeToLiveScope, AtomicReferenceArray> INSTANCES = //
+			AtomicReferenceFieldUpdater.newUpdater(TimeToLiveScope.class,
+					AtomicReferenceArray.class, "instances");
+
+	private final Expiry expiry;
+	private final Executor refresher;
+	private final LongSupplier clock;
+
+	/**
+	 * Each slot is either {@code null} (uninitialised), a {@link Claim}
+	 * (initialisation in progress) or an {@link Entry}.
+	 */
+	private volatile AtomicReferenceArray<Object> instances;
+
+	private final Claim.Slots entries = new Claim.Slots() {
+
+		@Override
+		public Object wrap(Object instance) {
+			return new Entry(mask(instance), clock.getAsLong(), expiry);
+		}
+
+		@Override
+		public Object unwrap(AtomicReferenceArray<Object> slots, int index,
+				Object value, Provider<?> provider) {
+			return current(slots, index, (Entry) value, provider);
+		}
+	};
+
+	public TimeToLiveScope(Expiry expiry, Executor refresher) {
+		this(expiry, refresher, System::nanoTime);
+	}
+
+	/**
+	 * @param clock the source of time in nanoseconds
+	 */
+	public TimeToLiveScope(Expiry expiry, Executor refresher,
+			LongSupplier clock) {
+		this.expiry = expiry;
+		this.refresher = refresher;
+		this.clock = clock;
+	}
+
+	@Override
+	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
+			Provider<T> provider) throws UnresolvableDependency {
+		AtomicReferenceArray<Object> objs = instances;
+		if (objs == null)
+			objs = instances(resources);
+		return Claim.provide(objs, serialID, dep, provider, entries);
+	}
+
+	@SuppressWarnings("unchecked")
+	private AtomicReferenceArray<Object> instances(int resources) {
+		INSTANCES.compareAndSet(this, null,
+				new AtomicReferenceArray<>(resources));
+		return instances;
+	}
+
+	private Object current(AtomicReferenceArray<Object> objs, int serialID,
+			Entry e, Provider<?> provider) {
+		long now = clock.getAsLong();
+		if (now - e.refreshAt < 0L || !e.claimRefresh())
+			return unmask(e.instance);
+		if (now - e.expiresAt < 0L) {
+			try {
+				refresher.execute(() -> refresh(objs, serialID, e, provider));
+			} catch (RejectedExecutionException ex) {
+				e.refreshFailed(now + expiry.retryNanos);
+			}
+			return unmask(e.instance);
+		}
+		return unmask(refresh(objs, serialID, e, provider));
+	}
+
+	/**
+	 * @return the refreshed instance or the current one if the refresh failed
+	 * with an {@link Exception}, any other {@link Throwable} is rethrown after
+	 * the refresh has been released for retry
+	 */
+	private Object refresh(AtomicReferenceArray<Object> objs, int serialID,
+			Entry e, Provider<?> provider) {
+		try {
+			Entry refreshed = new Entry(mask(provider.provide()),
+					clock.getAsLong(), expiry);
+			objs.set(serialID, refreshed);
+			return refreshed.instance;
+		} catch (Throwable ex) {
+			e.refreshFailed(clock.getAsLong() + expiry.retryNanos);
+			if (ex instanceof Exception)
+				return e.instance;
+			throw rethrow(ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ttl(" + expiry + ")";
+	}
+}
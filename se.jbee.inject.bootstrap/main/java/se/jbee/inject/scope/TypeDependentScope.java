@@ -2,17 +2,22 @@ package se.jbee.inject.scope;
 
 import se.jbee.inject.*;
 
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.function.Function;
 
+import static se.jbee.inject.scope.Claim.isClaim;
+import static se.jbee.inject.scope.Claim.mask;
+import static se.jbee.inject.scope.Claim.unmask;
+import static se.jbee.lang.Attempt.rethrow;
+
 /**
  * A {@link Scope} that maintains a map of instances where the key is derived
  * from the {@link Dependency} itself. In the simplest case this is the
- * {@link #typeSignature(Dependency)} or the
- * {@link #instanceSignature(Dependency)} but it can also include the injection
- * hierarchy as used by {@link #hierarchicalInstanceSignature(Dependency)}.
+ * {@link #typeKey(Dependency)} or the {@link #instanceKey(Dependency)} but it
+ * can also include the injection hierarchy as used by {@link
+ * #hierarchicalInstanceKey(Dependency)}.
  *
  * One use case are {@link #JVM} singletons. As the scope is kept in a normal
  * constant that is shared within the JVM this effectively shares the map's
@@ -27,27 +32,33 @@ public final class TypeDependentScope implements Scope {
 	 *
 	 * @since 8.1
 	 */
-	public static final Scope JVM = scope(TypeDependentScope::instanceSignature);
+	public static final Scope JVM = scope(TypeDependentScope::instanceKey);
 
-	public static Scope scope(Function<Dependency<?>, String> injectionKey) {
+	/**
+	 * @param injectionKey extracts the key of the instance from the {@link
+	 *                     Dependency}, keys need to implement {@link
+	 *                     Object#equals(Object)} and {@link Object#hashCode()}
+	 */
+	public static Scope scope(Function<Dependency<?>, ?> injectionKey) {
 		return new TypeDependentScope(injectionKey);
 	}
 
 	public static Scope perTypeSignature() {
-		return scope(TypeDependentScope::typeSignature);
+		return scope(TypeDependentScope::typeKey);
 	}
 
 	public static Scope perInstanceSignature() {
-		return scope(TypeDependentScope::instanceSignature);
+		return scope(TypeDependentScope::instanceKey);
 	}
 
 	public static Scope perHierarchicalInstanceSignature() {
-		return scope(TypeDependentScope::hierarchicalInstanceSignature);
+		return scope(TypeDependentScope::hierarchicalInstanceKey);
 	}
 
 	public static Scope perTargetInstanceSignature() {
-		return scope(TypeDependentScope::targetInstanceSignature);
+		return scope(TypeDependentScope::targetInstanceKey);
 	}
+
 	public static String typeSignature(Dependency<?> dep) {
 		return dep.type().toString();
 	}
@@ -62,30 +73,131 @@ public final class TypeDependentScope implements Scope {
 
 	public static String targetInstanceSignature(Dependency<?> dep) {
 		StringBuilder b = new StringBuilder();
-		for (int i = dep.injectionDepth() - 1; i >= 0; i--)
-			b.append(dep.target(i));
+		Instance<?>[] targets = dep.targets();
+		for (int i = targets.length - 1; i >= 0; i--)
+			b.append(targets[i]);
 		return b.toString();
 	}
 
 	/**
-	 * Cannot use a {@link ConcurrentHashMap} for this since it has the property
-	 * of not allowing updates to any other key while an entry being updated
-	 * atomically but resolving dependencies during the update (in the update
-	 * function) could very well lead to initialising other entries.
+	 * Same identity as {@link #typeSignature(Dependency)}.
+	 *
+	 * @since 8.2
 	 */
-	private final ConcurrentMap<String, Object> instances = new ConcurrentSkipListMap<>();
-	private final Function<Dependency<?>, String> injectionKey;
+	public static Object typeKey(Dependency<?> dep) {
+		return dep.type();
+	}
 
-	public TypeDependentScope(Function<Dependency<?>, String> injectionKey) {
+	/**
+	 * Same identity as {@link #instanceSignature(Dependency)}.
+	 *
+	 * @since 8.2
+	 */
+	public static Object instanceKey(Dependency<?> dep) {
+		return dep.instance;
+	}
+
+	/**
+	 * Same identity as {@link #hierarchicalInstanceSignature(Dependency)}.
+	 *
+	 * @since 8.2
+	 */
+	public static Object hierarchicalInstanceKey(Dependency<?> dep) {
+		return new InjectionKey(dep, true);
+	}
+
+	/**
+	 * Same identity as {@link #targetInstanceSignature(Dependency)}.
+	 *
+	 * @since 8.2
+	 */
+	public static Object targetInstanceKey(Dependency<?> dep) {
+		return new InjectionKey(dep, false);
+	}
+
+	/**
+	 * Values are either a {@link Claim} (initialisation in progress) or the
+	 * {@link Claim#mask(Object)}ed instance.
+	 * <p>
+	 * The {@link Provider} is not called within an atomic update of the map
+	 * since resolving dependencies during the update could very well lead to
+	 * initialising other entries which {@link ConcurrentHashMap} does not
+	 * allow.
+	 */
+	private final ConcurrentMap<Object, Object> instances = new ConcurrentHashMap<>();
+	private final Function<Dependency<?>, ?> injectionKey;
+
+	public TypeDependentScope(Function<Dependency<?>, ?> injectionKey) {
 		this.injectionKey = injectionKey;
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public <T> T provide(int serialID, int resources, Dependency<? super T> dep,
 			Provider<T> provider) throws UnresolvableDependency {
-		return (T) instances.computeIfAbsent(injectionKey.apply(dep),
-				k -> provider.provide());
+		Object key = injectionKey.apply(dep);
+		while (true) {
+			Object obj = instances.get(key);
+			if (obj == null) {
+				Claim claim = new Claim();
+				if (instances.putIfAbsent(key, claim) == null)
+					return provide(key, claim, provider);
+			} else if (isClaim(obj)) {
+				return ((Claim) obj).await(dep);
+			} else {
+				return unmask(obj);
+			}
+		}
+	}
+
+	private <T> T provide(Object key, Claim claim, Provider<T> provider) {
+		T instance;
+		try {
+			instance = provider.provide();
+		} catch (Throwable e) {
+			instances.remove(key, claim); // allows retry
+			claim.fail(e);
+			throw rethrow(e);
+		}
+		instances.put(key, mask(instance));
+		claim.complete(instance);
+		return instance;
 	}
 
+	/**
+	 * The {@link Instance}s of a {@link Dependency} and its injection targets
+	 * from the top to the bottom of the hierarchy.
+	 */
+	private static final class InjectionKey {
+
+		private final Instance<?>[] instances;
+		private final int hash;
+
+		InjectionKey(Dependency<?> dep, boolean includeDependency) {
+			Instance<?>[] targets = dep.targets();
+			int depth = targets.length;
+			int offset = includeDependency ? 1 : 0;
+			this.instances = new Instance<?>[depth + offset];
+			if (includeDependency)
+				instances[0] = dep.instance;
+			for (int i = 0; i < depth; i++)
+				instances[offset + i] = targets[depth - 1 - i];
+			this.hash = Arrays.hashCode(instances);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof InjectionKey && hash == obj.hashCode()
+				&& Arrays.equals(instances, ((InjectionKey) obj).instances);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(instances);
+		}
+	}
 }
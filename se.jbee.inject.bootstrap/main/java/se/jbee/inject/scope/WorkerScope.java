@@ -5,28 +5,59 @@ import se.jbee.inject.Provider;
 import se.jbee.inject.Scope;
 import se.jbee.inject.UnresolvableDependency;
 
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * A {@link Scope} that is linked to the current {@link Thread} using the
  * {@link Controller}.
+ * <p>
+ * Contexts of {@link Thread}s that terminated without deallocating their
+ * context are reclaimed the next time contexts are allocated.
+ * <p>
+ * Tasks can be run in the context of the {@link Thread} that created them
+ * using {@link #inContext(Runnable)} or by submitting them to an {@link
+ * ExecutorService} wrapped using {@link #propagating(ExecutorService)}.
  */
 public final class WorkerScope implements Scope {
 
-	//TODO cleanup that checks if thread is alive => general feature to allow hook in for cleanup without needed to explicitly work with scheduler
-	// also to cleanup on JVM shutdown
+	/**
+	 * The number of allocations between checks for contexts of terminated
+	 * {@link Thread}s.
+	 */
+	private static final int RECLAIM_INTERVAL = 64;
 
 	private static final class WorkerState {
-		final AtomicReferenceArray<Object> instances;
 
-		WorkerState(AtomicReferenceArray<Object> instances) {
-			this.instances = instances;
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<WorkerState, AtomicReferenceArray> INSTANCES = //
+				AtomicReferenceFieldUpdater.newUpdater(WorkerState.class,
+						AtomicReferenceArray.class, "instances");
+
+		volatile AtomicReferenceArray<Object> instances;
+
+		@SuppressWarnings("unchecked")
+		AtomicReferenceArray<Object> instances(int resources) {
+			AtomicReferenceArray<Object> objs = instances;
+			if (objs != null)
+				return objs;
+			INSTANCES.compareAndSet(this, null,
+					new AtomicReferenceArray<>(resources));
+			return instances;
 		}
 	}
 
 	private final ConcurrentMap<Thread, WorkerState> states = new ConcurrentHashMap<>();
+	private final AtomicInteger allocations = new AtomicInteger();
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -34,15 +65,115 @@ public final class WorkerScope implements Scope {
 			Provider<T> provider) throws UnresolvableDependency {
 		Thread target = Thread.currentThread();
 		if (dep.type().rawType == Controller.class) {
-			return (T) new WorkerScopeController(resources, target, states);
+			return (T) new WorkerScopeController(target);
 		}
 		WorkerState state = states.get(target);
 		if (state == null) {
 			throw new UnresolvableDependency.SupplyFailed("Scope error",
 					contextNotAllocated("Context"));
 		}
-		return (T) state.instances.updateAndGet(serialID,
-				value -> value != null ? value : provider.provide());
+		AtomicReferenceArray<Object> objs = state.instances(resources);
+		Object res = objs.get(serialID);
+		if (res != null)
+			return (T) res;
+		// a worker context is rarely shared so a concurrent provide is unlikely
+		// and only the instance that is set first is used
+		res = provider.provide();
+		return objs.compareAndSet(serialID, null, res)
+			? (T) res
+			: (T) objs.get(serialID);
+	}
+
+	/**
+	 * Wraps the task so that it runs in the context of the current {@link
+	 * Thread}. If the current {@link Thread} has no context the task runs in a
+	 * fresh context. In both cases the context is deallocated for the {@link
+	 * Thread} running the task once it is done.
+	 *
+	 * @param task the task to run in context
+	 * @return the wrapped task
+	 * @since 8.2
+	 */
+	public Runnable inContext(Runnable task) {
+		WorkerState src = states.get(Thread.currentThread());
+		return () -> {
+			Thread worker = Thread.currentThread();
+			WorkerState before = link(worker, src);
+			try {
+				task.run();
+			} finally {
+				unlink(worker, before);
+			}
+		};
+	}
+
+	/**
+	 * Same as {@link #inContext(Runnable)} just for a {@link Callable}.
+	 *
+	 * @since 8.2
+	 */
+	public <V> Callable<V> inContext(Callable<V> task) {
+		WorkerState src = states.get(Thread.currentThread());
+		return () -> {
+			Thread worker = Thread.currentThread();
+			WorkerState before = link(worker, src);
+			try {
+				return task.call();
+			} finally {
+				unlink(worker, before);
+			}
+		};
+	}
+
+	/**
+	 * @param executor the {@link Executor} to wrap
+	 * @return an {@link Executor} running all tasks {@link
+	 * #inContext(Runnable)} of the {@link Thread} submitting them
+	 * @since 8.2
+	 */
+	public Executor propagating(Executor executor) {
+		return task -> executor.execute(inContext(task));
+	}
+
+	/**
+	 * @param executor the {@link ExecutorService} to wrap
+	 * @return an {@link ExecutorService} running all tasks {@link
+	 * #inContext(Runnable)} of the {@link Thread} submitting them. Shutting
+	 * it down shuts down the wrapped {@link ExecutorService}.
+	 * @since 8.2
+	 */
+	public ExecutorService propagating(ExecutorService executor) {
+		return new PropagatingExecutorService(executor);
+	}
+
+	/**
+	 * @return number of {@link Thread}s that currently have a context
+	 * @since 8.2
+	 */
+	public int allocated() {
+		return states.size();
+	}
+
+	private WorkerState link(Thread worker, WorkerState src) {
+		reclaimTerminated();
+		return states.put(worker, src != null ? src : new WorkerState());
+	}
+
+	private void unlink(Thread worker, WorkerState before) {
+		if (before == null) {
+			states.remove(worker);
+		} else {
+			states.put(worker, before);
+		}
+	}
+
+	/**
+	 * Called each time a context is allocated to remove the contexts of
+	 * terminated {@link Thread}s every {@link #RECLAIM_INTERVAL} allocations.
+	 */
+	private void reclaimTerminated() {
+		if (allocations.incrementAndGet() % RECLAIM_INTERVAL == 0)
+			states.keySet().removeIf(t -> !t.isAlive());
 	}
 
 	static IllegalStateException contextNotAllocated(String context) {
@@ -50,18 +181,13 @@ public final class WorkerScope implements Scope {
 			+ Controller.class.getSimpleName());
 	}
 
-	private static final class WorkerScopeController implements Controller {
+	private final class WorkerScopeController implements Controller {
 
-		final int generators;
 		final Thread src;
-		final ConcurrentMap<Thread, WorkerState> workerStates;
 		private volatile WorkerState srcWorkerState;
 
-		WorkerScopeController(int generators, Thread src,
-				ConcurrentMap<Thread, WorkerState> states) {
-			this.generators = generators;
+		WorkerScopeController(Thread src) {
 			this.src = src;
-			this.workerStates = states;
 			this.srcWorkerState = states.get(src);
 		}
 
@@ -69,7 +195,8 @@ public final class WorkerScope implements Scope {
 		public void allocate() {
 			Thread target = Thread.currentThread();
 			WorkerState state = getOrCreateState(target);
-			WorkerState before = workerStates.putIfAbsent(target, state);
+			reclaimTerminated();
+			WorkerState before = states.putIfAbsent(target, state);
 			if (before != null) {
 				throw new IllegalStateException("Context was not deallocated.");
 			}
@@ -77,20 +204,64 @@ public final class WorkerScope implements Scope {
 
 		private WorkerState getOrCreateState(Thread target) {
 			if (src == target) {
-				srcWorkerState = new WorkerState(
-						new AtomicReferenceArray<>(generators));
+				srcWorkerState = new WorkerState();
 				return srcWorkerState;
 			}
 			WorkerState state = srcWorkerState;
 			if (state == null)
 				throw contextNotAllocated("Transfer context");
-			return new WorkerState(state.instances);
+			return state;
 		}
 
 		@Override
 		public void deallocate() {
-			workerStates.remove(Thread.currentThread());
+			states.remove(Thread.currentThread());
+		}
+
+	}
+
+	/**
+	 * All submit and invoke methods end up calling {@link #execute(Runnable)}
+	 * which wraps the task so that it runs in context.
+	 */
+	private final class PropagatingExecutorService
+			extends AbstractExecutorService {
+
+		private final ExecutorService executor;
+
+		PropagatingExecutorService(ExecutorService executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			executor.execute(inContext(command));
+		}
+
+		@Override
+		public void shutdown() {
+			executor.shutdown();
 		}
 
+		@Override
+		public List<Runnable> shutdownNow() {
+			return executor.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return executor.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return executor.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit)
+				throws InterruptedException {
+			return executor.awaitTermination(timeout, unit);
+		}
 	}
 }
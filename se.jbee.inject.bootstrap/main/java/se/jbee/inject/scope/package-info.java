@@ -15,17 +15,38 @@
  * <ul>
  * <li>{@link se.jbee.inject.scope.ApplicationScope}: A singleton within the
  * {@link se.jbee.inject.Injector} context.</li>
+ * <li>{@link se.jbee.inject.scope.ReferenceScope}: A singleton within the
+ * {@link se.jbee.inject.Injector} context that can be reclaimed by the garbage
+ * collector and is recreated on demand.</li>
+ * <li>{@link se.jbee.inject.scope.OffHeapScope}: A singleton within the
+ * {@link se.jbee.inject.Injector} context that is stored off-heap in encoded
+ * form and decoded on demand.</li>
+ * <li>{@link se.jbee.inject.scope.TenantScope}: A singleton per tenant
+ * within the {@link se.jbee.inject.Injector} context.</li>
  * <li>{@link se.jbee.inject.scope.ThreadScope}: A singleton per JVM
  * {@link java.lang.Thread}</li>
+ * <li>{@link se.jbee.inject.scope.StripedScope}: A number of singletons
+ * per binding each used by a share of the {@link java.lang.Thread}s.</li>
  * <li>{@link se.jbee.inject.scope.WorkerScope}: Base implementation for
  * {@link java.lang.Thread} pool based scopes like a request scope in an HTTP
- * server.</li>
+ * server. Its context can be propagated to tasks submitted to an {@link
+ * java.util.concurrent.ExecutorService}.</li>
+ * <li>{@link se.jbee.inject.scope.RequestScope}: A unit of work that is
+ * explicitly begun and ended by the {@link java.lang.Thread} handling it and
+ * closes the {@link java.lang.AutoCloseable} instances created within.</li>
  * <li>{@link se.jbee.inject.scope.DiskScope}: {@link java.io.File} based scope
  * for {@link java.io.Serializable} values in a particular directory.</li>
  * <li>{@link se.jbee.inject.scope.TypeDependentScope}: Implementation for
  * singletons per resolved {@link java.lang.Class}, {@link se.jbee.lang.Type},
  * {@link se.jbee.inject.Instance} or full
  * {@link se.jbee.inject.Dependency}.</li>
+ * <li>{@link se.jbee.inject.scope.EvictingScope}: A bounded variant of the
+ * {@link se.jbee.inject.scope.TypeDependentScope} that evicts least recently
+ * used or idle instances.</li>
+ * <li>{@link se.jbee.inject.scope.TimeToLiveScope}: Keeps instances for a
+ * duration and refreshes them ahead of their expiry.</li>
+ * <li>{@link se.jbee.inject.scope.PoolScope}: Lends instances from a bounded
+ * pool per binding.</li>
  * <li>{@link se.jbee.inject.scope.SnapshotScope}: A utility
  * {@link se.jbee.inject.Scope} that allows to create effective snapshots of
  * other {@link se.jbee.inject.Scope} that change asynchronously or concurrently
@@ -13,7 +13,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static java.lang.System.identityHashCode;
 import static se.jbee.inject.Dependency.dependency;
@@ -35,7 +37,14 @@ public final class Container implements Injector, Env {
 		return new Container(descriptors).getBuiltUp();
 	}
 
+	/**
+	 * Result of resolving a {@link Dependency} that no {@link Resource}
+	 * matches.
+	 */
+	private static final Object NO_MATCH = new Object();
+
 	private final Resources resources;
+	private final ResolutionCache cache = new ResolutionCache();
 	private final LiftResources liftResources;
 	private final Observer observer;
 	private final Injector builtUp;
@@ -44,13 +53,19 @@ public final class Container implements Injector, Env {
 		this.resources = new Resources(this::supplyInContext,
 				scope -> resolve(scope, Scope.class), descriptors);
 		this.liftResources = new LiftResources(
-				orElse((t, arr) -> arr,
-						() -> resolve(Lift.Sequencer.class)),
+				tryResolve(Lift.Sequencer.class).orElse((t, arr) -> arr),
 				resolve(resourcesTypeOf(Lift.liftTypeOf(Type.WILDCARD))));
 		this.observer = resolvePostConstructObserver();
 		this.builtUp = liftResources.lift(this);
 		resources.verifyIn(this);
-		resources.initEager();
+		resources.initEager(resolveEagerInitExecutor());
+	}
+
+	private Executor resolveEagerInitExecutor() {
+		Env env = tryResolve(Env.class).orElse(null);
+		return env == null
+			? null
+			: env.property(Env.EAGER_INIT_EXECUTOR, Executor.class, null);
 	}
 
 	private Injector getBuiltUp() {
@@ -74,28 +89,59 @@ public final class Container implements Injector, Env {
 		}
 	}
 
-	@SuppressWarnings({ "unchecked", "ChainOfInstanceofChecks" })
+	@Override
+	public <T> T property(String qualifier, Type<T> property, T defaultValue) {
+		return tryResolve(dependency(instance(Name.named(qualifier), property))) //
+				.orElse(defaultValue);
+	}
+
+	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T resolve(Dependency<T> dep) {
+		Object res = resolveOrNoMatch(dep);
+		if (res == NO_MATCH)
+			throw noResourceFor(dep);
+		return (T) res;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> Optional<T> tryResolve(Dependency<T> dep) {
+		try {
+			Object res = resolveOrNoMatch(dep);
+			return res == NO_MATCH ? Optional.empty() : Optional.ofNullable((T) res);
+		} catch (UnresolvableDependency e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the resolved instance or {@link #NO_MATCH} in case no {@link
+	 * Resource} matches the {@link Dependency}
+	 */
+	@SuppressWarnings("ChainOfInstanceofChecks")
+	private <T> Object resolveOrNoMatch(Dependency<T> dep) {
 		final Type<T> type = dep.type();
 		final Class<T> rawType = type.rawType;
 		if (rawType == Injector.class
 			&& (dep.instance.name.isAny() || dep.instance.name.isDefault()))
-			return (T) builtUp;
+			return builtUp;
 		if (rawType == Env.class && dep.instance.name.equalTo(Name.AS))
-			return (T) this;
+			return this;
+		if (rawType == ResolutionCache.class)
+			return cache;
 		return resolveFromResource(dep, type, rawType);
 	}
 
 	@SuppressWarnings("unchecked")
-	private <T> T resolveFromResource(Dependency<T> dep, final Type<T> type,
+	private <T> Object resolveFromResource(Dependency<T> dep, final Type<T> type,
 			final Class<T> rawType) {
 		boolean isResourceResolution = rawType == Resource.class
 			|| rawType == Generator.class;
 		if (isResourceResolution) {
 			Resource<?> res = mostQualifiedMatchFor(dep.onTypeParameter());
 			if (res != null)
-				return (T) res;
+				return res;
 		} else {
 			Resource<T> match = mostQualifiedMatchFor(dep);
 			if (match != null)
@@ -103,31 +149,42 @@ public final class Container implements Injector, Env {
 		}
 		if (type.arrayDimensions() == 1)
 			return resolveArray(dep, type.baseType());
-		if (isResourceResolution)
-			return (T) resolveFromUpperBound(dep.onTypeParameter());
-		return (T) resolveFromUpperBound(dep) //
-				.generate((Dependency<Object>) dep);
+		if (isResourceResolution) {
+			Resource<?> res = resolveFromUpperBound(dep.onTypeParameter());
+			return res == null ? NO_MATCH : res;
+		}
+		Resource<?> res = resolveFromUpperBound(dep);
+		return res == null
+			? NO_MATCH
+			: res.generate((Dependency<Object>) dep);
 	}
 
 	/**
 	 * There is no direct match for the required type but there might be a
 	 * wild-card binding, that is a binding capable of producing all sub-types
 	 * of a certain super-type.
+	 *
+	 * @return the matching {@link Resource} or {@code null} if there is none
 	 */
 	private <T> Resource<?> resolveFromUpperBound(Dependency<T> dep) {
 		Type<T> type = dep.type();
-		Resource<?> match = arrayFindFirst(resources.forType(Type.WILDCARD),
+		return arrayFindFirst(resources.forUpperBoundsOf(type.rawType),
 				r -> type.isAssignableTo(r.type())
 						&& r.signature.instance.name.isCompatibleWith(dep.instance.name));
-		if (match != null)
-			return match;
-		throw noResourceFor(dep);
 	}
 
 	private <T> Resource<T> mostQualifiedMatchFor(Dependency<T> dep) {
 		if (dep.type().equalTo(Type.WILDCARD) && dep.instance.name.isAny())
 			throwAmbiguousDependency(dep);
-		return mostQualifiedMatchIn(resources.forType(dep.type()), dep);
+		return cache.mostQualifiedMatchFor(dep,
+				resources.isTargeted(dep.type()), resources,
+				Container::mostQualifiedMatchIn);
+	}
+
+	private static <T> Resource<T> mostQualifiedMatchIn(Resources resources,
+			Dependency<T> dep) {
+		return mostQualifiedMatchIn(
+				resources.forType(dep.type(), dep.instance.name), dep);
 	}
 
 	private static <T> Resource<T> mostQualifiedMatchIn(Resource<T>[] rs,
@@ -168,7 +225,7 @@ public final class Container implements Injector, Env {
 			return toArray(elements, elemType);
 		}
 		List<E> elements = new ArrayList<>();
-		for (Entry<Class<?>, Resource<?>[]> e : resources.entrySet())
+		for (Entry<Class<?>, Resource<?>[]> e : resources.forSubtypesOf(rawElemType))
 			if (Type.raw(e.getKey()).isAssignableTo(elemType))
 				addAllMatching(elements, identities, dep, elemType,
 						(Resource<? extends E>[]) e.getValue());
@@ -192,7 +249,7 @@ public final class Container implements Injector, Env {
 	private <T> Resource<T>[] resolveArrayElementResourcesForUpperBoundType(
 			Type<T> generatedType, Dependency<T> dep) {
 		List<Resource<?>> res = new ArrayList<>();
-		for (Entry<Class<?>, Resource<?>[]> e : resources.entrySet())
+		for (Entry<Class<?>, Resource<?>[]> e : resources.forSubtypesOf(generatedType.rawType))
 			if (raw(e.getKey()).isAssignableTo(generatedType))
 				addCompatibleResources(res, dep,
 						(Resource<? extends T>[]) e.getValue());
@@ -0,0 +1,169 @@
+package se.jbee.inject.container;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Resource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import static java.lang.System.arraycopy;
+
+/**
+ * A {@link ResolutionCache} remembers which {@link Resource} was found to be
+ * the most qualified match for a {@link Dependency} so that later resolution
+ * of an equal {@link Dependency} does not have to search the candidates again.
+ * <p>
+ * Matches are cached by the {@link Dependency#instance} and the chain of
+ * target {@link Instance}s of the injection hierarchy as these are the only
+ * parts of a {@link Dependency} considered by {@link
+ * se.jbee.inject.Locator#isUsableFor(Dependency)}. When none of the candidates
+ * for a type is targeted the chain is not considered so that the same entry
+ * is used independent of where the {@link Dependency} is injected. Otherwise
+ * the entries for the different chains of an {@link Instance} are compared by
+ * walking the hierarchy of the {@link Dependency} so that a lookup does not
+ * allocate.
+ * <p>
+ * As the set of {@link Resource}s in an {@link Injector} context is fixed an
+ * entry never becomes invalid. To protect against dynamically created types
+ * growing the cache without bound no new entries are added once {@link
+ * #MAX_ENTRIES} is reached.
+ * <p>
+ * The {@link ResolutionCache} of a {@link Container} can be resolved from the
+ * {@link Injector} to observe its effectiveness.
+ *
+ * @since 8.2
+ */
+public final class ResolutionCache {
+
+	/**
+	 * The maximum number of entries kept in the cache
+	 */
+	public static final int MAX_ENTRIES = 1 << 16;
+
+	/**
+	 * Marks a {@link Dependency} for which no {@link Resource} matched
+	 */
+	private static final Object NO_MATCH = new Object();
+
+	/**
+	 * The cache is only added to after the match has been computed so no
+	 * recursive modification can occur which makes {@link ConcurrentHashMap}
+	 * a safe choice.
+	 * <p>
+	 * Whether a type is targeted is fixed for an {@link Injector} context so
+	 * an {@link Instance} either maps directly to its match or to the {@link
+	 * Targeted} matches.
+	 */
+	private final ConcurrentMap<Instance<?>, Object> matches = new ConcurrentHashMap<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	ResolutionCache() {
+		// only created by the Container
+	}
+
+	@SuppressWarnings("unchecked")
+	<T, S> Resource<T> mostQualifiedMatchFor(Dependency<T> dep,
+			boolean targeted, S source,
+			BiFunction<S, Dependency<T>, Resource<T>> search) {
+		Object match = matches.get(dep.instance);
+		if (targeted && match != null)
+			match = ((Targeted) match).matchFor(dep);
+		if (match != null) {
+			hits.increment();
+			return match == NO_MATCH ? null : (Resource<T>) match;
+		}
+		misses.increment();
+		Resource<T> res = search.apply(source, dep);
+		if (size.get() < MAX_ENTRIES)
+			add(dep, targeted, res == null ? NO_MATCH : res);
+		return res;
+	}
+
+	private void add(Dependency<?> dep, boolean targeted, Object match) {
+		if (!targeted) {
+			if (matches.putIfAbsent(dep.instance, match) == null)
+				size.incrementAndGet();
+			return;
+		}
+		boolean[] added = new boolean[1];
+		matches.compute(dep.instance, (key, value) -> {
+			Targeted current = (Targeted) value;
+			if (current != null && current.matchFor(dep) != null)
+				return current;
+			added[0] = true;
+			return new Targeted(current, dep, match);
+		});
+		if (added[0])
+			size.incrementAndGet();
+	}
+
+	/**
+	 * @return number of resolutions that were served from the cache
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of resolutions that had to search for the matching {@link
+	 * Resource}
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of cached matches
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ResolutionCache[size=" + size() + ", hits=" + hits()
+			+ ", misses=" + misses() + "]";
+	}
+
+	/**
+	 * The matches of an {@link Instance} for the different chains of targets.
+	 * Adding a match creates a new {@link Targeted} so that it can be read
+	 * without locking.
+	 */
+	private static final class Targeted {
+
+		final Instance<?>[][] targets;
+		final int[] hashes;
+		final Object[] matches;
+
+		Targeted(Targeted current, Dependency<?> dep, Object match) {
+			int n = current == null ? 0 : current.matches.length;
+			this.targets = new Instance<?>[n + 1][];
+			this.hashes = new int[n + 1];
+			this.matches = new Object[n + 1];
+			if (current != null) {
+				arraycopy(current.targets, 0, targets, 0, n);
+				arraycopy(current.hashes, 0, hashes, 0, n);
+				arraycopy(current.matches, 0, matches, 0, n);
+			}
+			targets[n] = dep.targets();
+			hashes[n] = dep.targetsHash();
+			matches[n] = match;
+		}
+
+		Object matchFor(Dependency<?> dep) {
+			int hash = dep.targetsHash();
+			for (int i = 0; i < hashes.length; i++)
+				if (hashes[i] == hash && dep.targetsEqualTo(targets[i]))
+					return matches[i];
+			return null;
+		}
+	}
+}
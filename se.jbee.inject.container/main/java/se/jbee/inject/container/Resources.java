@@ -5,12 +5,19 @@ import se.jbee.inject.UnresolvableDependency.ResourceResolutionFailed;
 import se.jbee.lang.Lazy;
 import se.jbee.lang.Type;
 
+import java.lang.reflect.Array;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import static java.util.Arrays.copyOfRange;
 import static se.jbee.inject.Name.named;
+import static se.jbee.lang.Utils.arrayContains;
+import static se.jbee.lang.Utils.arrayFilter;
 
 /**
  * A set of {@link Resources} encapsulates the state and bootstrapping of
@@ -26,10 +33,25 @@ import static se.jbee.inject.Name.named;
  */
 final class Resources {
 
+	/**
+	 * Raw types with fewer {@link Resource}s than this are not indexed by
+	 * {@link Name} as a linear search is at least as fast.
+	 */
+	private static final int NAME_INDEX_THRESHOLD = 8;
+
 	private final int resourceCount;
 	private final Map<Class<?>, Resource<?>[]> resourcesByType;
+	private final Map<Class<?>, NameIndex> resourcesByTypeAndName;
 	private final Resource<?>[] sortedResources;
 	private final Resource<?>[] genericResources;
+	private final Map<Class<?>, List<Entry<Class<?>, Resource<?>[]>>> resourcesByRawSupertype;
+	/**
+	 * The {@link #genericResources} that can be used for a particular raw type
+	 * (computed on first use)
+	 */
+	private final Map<Class<?>, Resource<?>[]> genericResourcesByRawType = new ConcurrentHashMap<>();
+	private final Set<Class<?>> targetedRawTypes;
+	private final boolean targetedGenericResources;
 
 	/**
 	 * Creates a set of grouped {@link Resource} from {@link
@@ -52,7 +74,11 @@ final class Resources {
 		this.resourceCount = descriptors.length;
 		this.sortedResources = createResources(context, scopes, descriptors);
 		this.resourcesByType = createResourcesByRawType(sortedResources);
+		this.resourcesByTypeAndName = createNameIndexes(resourcesByType);
 		this.genericResources = selectGenericResources(resourcesByType);
+		this.resourcesByRawSupertype = createResourcesByRawSupertype(resourcesByType);
+		this.targetedRawTypes = selectTargetedRawTypes(resourcesByType);
+		this.targetedGenericResources = isAnyTargeted(genericResources);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -62,8 +88,64 @@ final class Resources {
 		return (Resource<T>[]) resourcesByType.get(type.rawType);
 	}
 
-	public Set<Entry<Class<?>, Resource<?>[]>> entrySet() {
-		return resourcesByType.entrySet();
+	/**
+	 * Same as {@link #forType(Type)} except that {@link Resource}s that cannot
+	 * be used for the given {@link Name} might already be excluded. The
+	 * returned {@link Resource}s are still sorted from most to least qualified.
+	 *
+	 * @param type the required {@link Type}
+	 * @param name the required {@link Name}
+	 * @return the candidates to use for the given {@link Type} and {@link Name}
+	 * sorted from most to least qualified
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Resource<T>[] forType(Type<T> type, Name name) {
+		if (name.isAny() || name.isPattern())
+			return forType(type);
+		NameIndex index = resourcesByTypeAndName.get(type.rawType);
+		if (index == null || type.equalTo(Type.WILDCARD))
+			return forType(type);
+		return (Resource<T>[]) index.forName(name);
+	}
+
+	/**
+	 * @return true, if any of the {@link Resource}s returned by {@link
+	 * #forType(Type)} for the same {@link Type} has a {@link Target} that is
+	 * not {@link Target#isAny()}. Only in that case the injection hierarchy of
+	 * a {@link Dependency} can affect which {@link Resource} is used.
+	 */
+	public boolean isTargeted(Type<?> type) {
+		if (type.equalTo(Type.WILDCARD))
+			return targetedGenericResources;
+		return targetedRawTypes.contains(type.rawType);
+	}
+
+	/**
+	 * @param rawSupertype any raw type
+	 * @return the {@link Resource}s grouped by their raw type for all raw types
+	 * that are assignable to the given raw super-type (including the type
+	 * itself)
+	 */
+	public List<Entry<Class<?>, Resource<?>[]>> forSubtypesOf(
+			Class<?> rawSupertype) {
+		return resourcesByRawSupertype.getOrDefault(rawSupertype,
+				Collections.emptyList());
+	}
+
+	/**
+	 * @param rawType any raw type
+	 * @return the generic (upper bound) {@link Resource}s whose upper bound is
+	 * a super-type of the given raw type in order of most to least qualified.
+	 * These are only the candidates, the actual {@link Type} still needs to be
+	 * checked
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Resource<? super T>[] forUpperBoundsOf(Class<T> rawType) {
+		if (genericResources == null)
+			return null;
+		return (Resource<? super T>[]) genericResourcesByRawType.computeIfAbsent(
+				rawType, key -> arrayFilter(genericResources,
+						r -> r.type().rawType.isAssignableFrom(key)));
 	}
 
 	@Override
@@ -93,9 +175,56 @@ final class Resources {
 		}
 	}
 
-	public void initEager() {
+	/**
+	 * Initialises all {@link ScopeLifeCycle#isEager()} {@link Resource}s.
+	 * <p>
+	 * When an {@link Executor} is given all eager {@link Resource}s are
+	 * initialised concurrently. The order in which dependent {@link Resource}s
+	 * are created is still guaranteed as creating an instance first resolves
+	 * its dependencies. Should another thread already be in the process of
+	 * creating a dependency the {@link Scope} makes sure it is only created
+	 * once so that the other thread just waits for it to exist.
+	 * <p>
+	 * Failures are reported after all initialisations are done. The failure of
+	 * the most qualified {@link Resource} (in sort order) is thrown with all
+	 * other failures added as suppressed exceptions so that the outcome does
+	 * not depend on timing.
+	 * <p>
+	 * Eager {@link Resource}s that depend on each other fail with a {@link
+	 * se.jbee.inject.UnresolvableDependency.DependencyCycle} even when they
+	 * are initialised by different threads that would otherwise wait for each
+	 * other forever.
+	 *
+	 * @param executor the {@link Executor} to use, or {@code null} to
+	 *                 initialise in the calling thread
+	 */
+	public void initEager(Executor executor) {
+		if (executor == null) {
+			for (Resource<?> eager : sortedResources)
+				eager.init();
+			return;
+		}
+		List<CompletableFuture<Void>> inits = new ArrayList<>();
 		for (Resource<?> eager : sortedResources)
-			eager.init();
+			if (eager.lifeCycle.isEager())
+				inits.add(CompletableFuture.runAsync(eager::init, executor));
+		RuntimeException failed = null;
+		for (CompletableFuture<Void> init : inits) {
+			try {
+				init.join();
+			} catch (CompletionException e) {
+				RuntimeException cause = e.getCause() instanceof RuntimeException
+					? (RuntimeException) e.getCause()
+					: e;
+				if (failed == null) {
+					failed = cause;
+				} else if (cause != failed) { // waiters share the failure
+					failed.addSuppressed(cause);
+				}
+			}
+		}
+		if (failed != null)
+			throw failed;
 	}
 
 	private static Resource<?>[] selectGenericResources(
@@ -111,6 +240,63 @@ final class Resources {
 		return res.isEmpty() ? null : res.toArray(new Resource[0]);
 	}
 
+	private static Map<Class<?>, List<Entry<Class<?>, Resource<?>[]>>> createResourcesByRawSupertype(
+			Map<Class<?>, Resource<?>[]> byRawType) {
+		Map<Class<?>, List<Entry<Class<?>, Resource<?>[]>>> bySupertype = new IdentityHashMap<>();
+		for (Entry<Class<?>, Resource<?>[]> e : byRawType.entrySet())
+			for (Class<?> supertype : rawSupertypes(e.getKey()))
+				bySupertype.computeIfAbsent(supertype,
+						key -> new ArrayList<>()).add(e);
+		return bySupertype;
+	}
+
+	/**
+	 * @return the given raw type and all its super-classes and
+	 * super-interfaces (for array types this includes the arrays of the
+	 * component's super-types as arrays are covariant)
+	 */
+	private static Set<Class<?>> rawSupertypes(Class<?> rawType) {
+		Set<Class<?>> res = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Class<?>> todo = new ArrayDeque<>();
+		todo.add(rawType);
+		while (!todo.isEmpty()) {
+			Class<?> type = todo.poll();
+			if (res.add(type)) {
+				if (type.getSuperclass() != null)
+					todo.add(type.getSuperclass());
+				todo.addAll(Arrays.asList(type.getInterfaces()));
+				if (type.isInterface())
+					todo.add(Object.class);
+				if (type.isArray())
+					for (Class<?> component : rawSupertypes(type.getComponentType()))
+						todo.add(Array.newInstance(component, 0).getClass());
+			}
+		}
+		return res;
+	}
+
+	private static Map<Class<?>, NameIndex> createNameIndexes(
+			Map<Class<?>, Resource<?>[]> byRawType) {
+		Map<Class<?>, NameIndex> byName = new IdentityHashMap<>();
+		for (Entry<Class<?>, Resource<?>[]> e : byRawType.entrySet())
+			if (e.getValue().length >= NAME_INDEX_THRESHOLD)
+				byName.put(e.getKey(), new NameIndex(e.getValue()));
+		return byName;
+	}
+
+	private static Set<Class<?>> selectTargetedRawTypes(
+			Map<Class<?>, Resource<?>[]> byRawType) {
+		Set<Class<?>> res = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Entry<Class<?>, Resource<?>[]> e : byRawType.entrySet())
+			if (isAnyTargeted(e.getValue()))
+				res.add(e.getKey());
+		return res;
+	}
+
+	private static boolean isAnyTargeted(Resource<?>[] resources) {
+		return arrayContains(resources, r -> !r.signature.target.isAny());
+	}
+
 	private Resource<?>[] createResources(SupplyContext context,
 			Function<Name, Scope> scopes, ResourceDescriptor<?>[] descriptors) {
 		Resource<?>[] res = new Resource<?>[descriptors.length];
@@ -245,8 +431,10 @@ final class Resources {
 		Name scope = resource.lifeCycle.scope;
 		Generator<T> inContext = dep -> context.supplyInContext(dep, supplier,
 				resource);
-		if (Scope.class.isAssignableFrom(resource.type().rawType)
-			|| Scope.container.equalTo(scope))
+		boolean isScope = Scope.class.isAssignableFrom(resource.type().rawType);
+		if (isScope && NameIndex.isFallback(resource.signature.instance.name))
+			return new LazySingletonPerNameGenerator<>(inContext, resource);
+		if (isScope || Scope.container.equalTo(scope))
 			return new LazySingletonGenerator<>(inContext, resource);
 		if (Scope.reference.equalTo(scope))
 			return new ReferenceGenerator<>(inContext, resource);
@@ -260,6 +448,48 @@ final class Resources {
 			r.verifier.verifyIn(context);
 	}
 
+	/**
+	 * Groups the {@link Resource}s of a raw type by their exact {@link Name}.
+	 * <p>
+	 * A {@link Resource} with an {@link Name#isAny()} or {@link
+	 * Name#isPattern()} name can match many exact names. These are kept in a
+	 * fallback list that is merged into each exact name group so that each
+	 * group contains all candidates for a exact name in the original order
+	 * (most qualified first).
+	 */
+	private static final class NameIndex {
+
+		private final Map<Name, Resource<?>[]> byName = new HashMap<>();
+		private final Resource<?>[] fallback;
+
+		NameIndex(Resource<?>[] sorted) {
+			List<Resource<?>> fallback = new ArrayList<>();
+			Map<Name, List<Resource<?>>> exact = new LinkedHashMap<>();
+			for (Resource<?> r : sorted) {
+				Name name = r.signature.instance.name;
+				if (isFallback(name)) {
+					fallback.add(r);
+					for (List<Resource<?>> group : exact.values())
+						group.add(r);
+				} else {
+					exact.computeIfAbsent(name, n -> new ArrayList<>(fallback)).add(r);
+				}
+			}
+			this.fallback = fallback.toArray(new Resource<?>[0]);
+			for (Entry<Name, List<Resource<?>>> e : exact.entrySet())
+				byName.put(e.getKey(), e.getValue().toArray(new Resource<?>[0]));
+		}
+
+		private static boolean isFallback(Name name) {
+			return name.isAny() || name.isPattern();
+		}
+
+		Resource<?>[] forName(Name name) {
+			Resource<?>[] res = byName.get(name);
+			return res == null ? fallback : res;
+		}
+	}
+
 	/**
 	 * This {@link Generator} represents the {@link Scope#container} where the
 	 * {@link LazySingletonGenerator#value} field holds the singleton value.
@@ -304,6 +534,38 @@ final class Resources {
 		}
 	}
 
+	/**
+	 * A {@link LazySingletonGenerator} for {@link Scope}s bound to a {@link
+	 * Name#isAny()} or {@link Name#isPattern()} name, like {@link
+	 * Scope#ttl(String)}, that keeps one instance per exact name resolved so
+	 * that each name can be configured differently.
+	 *
+	 * @param <T> Type of the lazy value generated
+	 */
+	private static final class LazySingletonPerNameGenerator<T>
+			implements Generator<T> {
+
+		private final Generator<T> inContext;
+		private final Resource<T> resource;
+		private final Map<Name, Lazy<T>> values = new ConcurrentHashMap<>();
+
+		LazySingletonPerNameGenerator(Generator<T> inContext,
+				Resource<T> resource) {
+			this.inContext = inContext;
+			this.resource = resource;
+		}
+
+		@Override
+		public T generate(Dependency<? super T> dep)
+				throws UnresolvableDependency {
+			dep.ensureNoIllegalDirectAccessOf(resource.signature);
+			return values.computeIfAbsent(dep.instance.name,
+					name -> new Lazy<>()).get(() -> inContext.generate(
+							dep.injectingInto(resource.signature,
+									resource.lifeCycle)));
+		}
+	}
+
 	/**
 	 * Special {@link Generator} for forward referencing {@link Resource}s.
 	 * These are created with {@link Scope#reference}.
@@ -354,25 +616,24 @@ final class Resources {
 		@Override
 		public T generate(Dependency<? super T> dep) {
 			dep.ensureNoIllegalDirectAccessOf(resource.signature);
+			Scope scope = this.scope.get(scopeProvider);
+			T res = scope.lookup(resource.serialID, dep);
+			if (res != null) {
+				// exists: only check, the injected Dependency is not needed
+				dep.ensureInjectableInto(resource.signature, resource.lifeCycle);
+				return contextualised(res, dep);
+			}
+			return contextualised(generateInScope(scope, dep), dep);
+		}
+
+		private T generateInScope(Scope scope, Dependency<? super T> dep) {
 			final Dependency<? super T> injected = dep.injectingInto(
 					resource.signature, resource.lifeCycle);
-			/*
-			 * This cache makes sure that within one thread even if the provider
-			 * (createInScope) is called multiple times (which can occur because
-			 * methods like {@code updateAndGet} on atomics have a loop) will
-			 * always yield the same instance. Different invocation of this outer
-			 * method (generate) however can lead to multiple calls to the
-			 * Generator.
-			 */
-			Object[] cache = new Object[1];
-			@SuppressWarnings("unchecked")
-			Provider<T> createInScope = () -> {
-				if (cache[0] == null)
-					cache[0] = inContext.generate(injected);
-				return (T) cache[0];
-			};
-			T res = scope.get(scopeProvider) //
-					.provide(resource.serialID,	resources, injected, createInScope);
+			return scope.provide(resource.serialID, resources, injected,
+					() -> inContext.generate(injected));
+		}
+
+		private static <T> T contextualised(T res, Dependency<? super T> dep) {
 			if (res instanceof ContextAware) {
 				@SuppressWarnings("unchecked")
 				ContextAware<T> contextAware = (ContextAware<T>) res;
@@ -0,0 +1,168 @@
+package se.jbee.lang;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * An ongoing initialisation of a value by the {@link Thread} that created the
+ * {@link Attempt} that other threads can {@link #await()}.
+ * <p>
+ * The initialising thread either {@link #complete(Object)}s the {@link
+ * Attempt} with the value or {@link #fail(Throwable)}s it. Waiting threads are
+ * parked until then. They either get the value or fail with the same {@link
+ * Throwable}, including checked exceptions thrown sneakily.
+ * <p>
+ * A thread that would wait for itself, directly or because the initialiser
+ * (indirectly) waits for an {@link Attempt} the thread is initialising, fails
+ * instead of waiting forever.
+ *
+ * @since 8.2
+ */
+public class Attempt {
+
+	/**
+	 * Marks a {@code null} value.
+	 */
+	private static final Object NULL = new Object();
+
+	/**
+	 * The {@link Attempt} each waiting {@link Thread} waits for. Only used by
+	 * waiting threads to detect that they wait for each other.
+	 */
+	private static final ConcurrentMap<Thread, Attempt> AWAITED = new ConcurrentHashMap<>();
+
+	private final Thread initialiser = Thread.currentThread();
+	private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+	private volatile Object result;
+
+	/**
+	 * @return true, if the calling {@link Thread} is the one initialising the
+	 * value
+	 */
+	public final boolean isInitialiser() {
+		return Thread.currentThread() == initialiser;
+	}
+
+	/**
+	 * Parks the calling thread until the {@link Attempt} is done.
+	 *
+	 * @return the value as given to {@link #complete(Object)}
+	 * @throws IllegalStateException when called by the {@link Thread}
+	 *                               initialising the value or a {@link
+	 *                               Thread} it waits for
+	 */
+	public final <V> V await() {
+		return await(() -> new IllegalStateException(
+				"Recursive initialisation of lazy value"));
+	}
+
+	/**
+	 * Parks the calling thread until the {@link Attempt} is done.
+	 *
+	 * @param cycle creates the exception thrown instead of waiting forever
+	 *              when the calling {@link Thread} is the initialiser or the
+	 *              initialiser (indirectly) waits for the calling {@link
+	 *              Thread}
+	 * @return the value as given to {@link #complete(Object)}
+	 */
+	@SuppressWarnings("unchecked")
+	public final <V> V await(Supplier<? extends RuntimeException> cycle) {
+		Thread waiter = Thread.currentThread();
+		if (waiter == initialiser)
+			throw cycle.get();
+		Object res = result;
+		if (res == null) {
+			waiters.add(waiter);
+			AWAITED.put(waiter, this);
+			try {
+				if (isAwaitedBy(waiter))
+					throw cycle.get();
+				res = park(waiter);
+			} finally {
+				AWAITED.remove(waiter);
+			}
+		}
+		if (res.getClass() == Failure.class)
+			throw rethrow(((Failure) res).cause);
+		return res == NULL ? null : (V) res;
+	}
+
+	/**
+	 * Follows the chain of initialisers and the {@link Attempt}s they wait
+	 * for. Of two threads starting to wait for each other at least the one
+	 * registered last finds the other in the chain.
+	 *
+	 * @return true, if the given waiter is (indirectly) waited for by the
+	 * initialiser of this {@link Attempt}
+	 */
+	private boolean isAwaitedBy(Thread waiter) {
+		Thread t = initialiser;
+		// bounded as the chain might change while following it
+		for (int i = AWAITED.size(); i >= 0; i--) {
+			Attempt awaited = AWAITED.get(t);
+			if (awaited == null || awaited.result != null)
+				return false; // not waiting (any more)
+			t = awaited.initialiser;
+			if (t == waiter)
+				return true;
+		}
+		return false;
+	}
+
+	private Object park(Thread waiter) {
+		Object res = result;
+		boolean interrupted = false;
+		while (res == null) {
+			LockSupport.park(this);
+			if (Thread.interrupted())
+				interrupted = true;
+			res = result;
+		}
+		if (interrupted)
+			waiter.interrupt();
+		return res;
+	}
+
+	public final void complete(Object value) {
+		done(value == null ? NULL : value);
+	}
+
+	public final void fail(Throwable cause) {
+		done(new Failure(cause));
+	}
+
+	private void done(Object res) {
+		result = res;
+		for (Thread waiter : waiters)
+			LockSupport.unpark(waiter);
+	}
+
+	/**
+	 * Throws the given {@link Throwable} as it is, even if it is a checked
+	 * exception.
+	 *
+	 * @param cause the {@link Throwable} to throw
+	 * @return never returns, declared so that callers can {@code throw} the
+	 * result to end the control flow
+	 */
+	public static RuntimeException rethrow(Throwable cause) {
+		throw Attempt.<RuntimeException>sneaky(cause);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> E sneaky(Throwable cause) throws E {
+		throw (E) cause;
+	}
+
+	private static final class Failure {
+
+		final Throwable cause;
+
+		Failure(Throwable cause) {
+			this.cause = cause;
+		}
+	}
+}
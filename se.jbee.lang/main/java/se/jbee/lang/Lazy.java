@@ -1,9 +1,10 @@
 package se.jbee.lang;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Supplier;
 
+import static se.jbee.lang.Attempt.rethrow;
+
 /**
  * The {@link Lazy} utility class is used for fields that are initialised by a
  * {@link Supplier} function that should only run once in case it will be
@@ -14,29 +15,82 @@ import java.util.function.Supplier;
  *
  * It should also not run multiple times to successful initialise the field.
  *
+ * Threads that ask for the value while another thread is initialising it are
+ * parked until the initialisation is done. Should the initialisation fail with
+ * an exception all threads waiting for it fail with the same exception. The
+ * next thread asking for the value after a failure will try again.
+ *
+ * A {@code null} value is a valid result of the initialisation.
+ *
  * @author Jan Bernitt
  *
  * @param <V> Type of the value
  */
-public final class Lazy<V> extends AtomicReference<V> {
+public final class Lazy<V> {
+
+	/**
+	 * Marks a {@code null} value.
+	 */
+	private static final Object NULL = new Object();
 
-	private final AtomicBoolean initialised = new AtomicBoolean();
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Lazy, Object> STATE = //
+			AtomicReferenceFieldUpdater.newUpdater(Lazy.class, Object.class,
+					"state");
+
+	/**
+	 * Either {@code null} (uninitialised), an {@link Attempt} (initialisation
+	 * in progress) or the initialised value (using {@link #NULL} for {@code
+	 * null}).
+	 */
+	private volatile Object state;
 
 	public V get(Supplier<V> initialValue) {
+		Object s = state;
+		if (s != null && s.getClass() != Attempt.class)
+			return unmask(s);
+		return getOrInit(initialValue);
+	}
+
+	/**
+	 * @return true, once the value is initialised successfully
+	 */
+	public boolean isInitialised() {
+		Object s = state;
+		return s != null && s.getClass() != Attempt.class;
+	}
+
+	private V getOrInit(Supplier<V> initialValue) {
+		while (true) {
+			Object s = state;
+			if (s == null) {
+				Attempt attempt = new Attempt();
+				if (STATE.compareAndSet(this, null, attempt))
+					return init(attempt, initialValue);
+			} else if (s.getClass() == Attempt.class) {
+				return ((Attempt) s).await();
+			} else {
+				return unmask(s);
+			}
+		}
+	}
+
+	private V init(Attempt attempt, Supplier<V> initialValue) {
 		V value;
-		if (initialised.compareAndSet(false, true)) {
+		try {
 			value = initialValue.get();
-			set(value);
-		} else {
-			// another thread is about to initialise it
-			do {
-				value = get();
-			} while (value == null);
+		} catch (Throwable e) {
+			state = null; // allows retry
+			attempt.fail(e);
+			throw rethrow(e);
 		}
+		state = value == null ? NULL : value;
+		attempt.complete(value);
 		return value;
 	}
 
-	public boolean isInitialised() {
-		return initialised.get();
+	@SuppressWarnings("unchecked")
+	private static <V> V unmask(Object value) {
+		return value == NULL ? null : (V) value;
 	}
 }
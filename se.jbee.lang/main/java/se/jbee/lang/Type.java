@@ -6,9 +6,13 @@
 package se.jbee.lang;
 
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 /**
@@ -20,12 +24,38 @@ import java.util.function.Predicate;
  * Lower bound types ({@code ? super X}) are not supported as they usually are
  * not needed in context of injection.
  *
+ * {@link Type}s are canonical: equal {@link Type}s are the same instance.
+ * Raw types are kept per {@link Class} while parameterized types are interned
+ * in a table that does not prevent them from being garbage collected.
+ *
  * @author Jan Bernitt (jan@jbee.se)
  */
 @SuppressWarnings({ "squid:S1448", "squid:S1200" })
 public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 		Serializable, Comparable<Type<?>> {
 
+	private static final Type<?>[] NO_PARAMS = new Type<?>[0];
+
+	/**
+	 * The canonical exact (index 0) and upper bound (index 1) raw {@link Type}
+	 * for each {@link Class}.
+	 */
+	private static final ClassValue<Type<?>[]> RAW = new ClassValue<Type<?>[]>() {
+
+		@Override
+		protected Type<?>[] computeValue(Class<?> type) {
+			if (type.isPrimitive())
+				return get(primitiveAsWrapper(type));
+			return new Type<?>[] { new Type<>(false, type, NO_PARAMS),
+					new Type<>(true, type, NO_PARAMS) };
+		}
+	};
+
+	/**
+	 * The canonical parameterized {@link Type}s.
+	 */
+	private static final Interner INTERNED = new Interner();
+
 	public static final Type<Object> OBJECT = Type.raw(Object.class);
 	public static final Type<Void> VOID = raw(Void.class);
 	public static final Type<?> WILDCARD = OBJECT.asUpperBound();
@@ -39,7 +69,7 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 		}
 		if (base != type) {
 			Type<?> genericBase = raw(base).varTypeParametersAsWildcards();
-			return new Type<>(type, genericBase.params);
+			return canonical(false, type, genericBase.params);
 		}
 		return raw(type).varTypeParametersAsWildcards();
 	}
@@ -143,13 +173,21 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 	}
 
 	public static <T> Type<T> raw(Class<T> type) {
-		return new Type<>(type);
+		return canonical(false, type, NO_PARAMS);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Type<T> canonical(boolean upperBound, Class<T> rawType,
+			Type<?>[] params) {
+		if (params.length == 0)
+			return (Type<T>) RAW.get(rawType)[upperBound ? 1 : 0];
+		return INTERNED.intern(new Type<>(upperBound, rawType, params));
 	}
 
 	private static Type<?>[] genericTypes(java.lang.reflect.Type[] types,
 			Map<TypeVariable<?>, Type<?>> actualTypeArguments) {
 		if (types.length == 0)
-			return new Type[0];
+			return NO_PARAMS;
 		return Utils.arrayMap(types, Type.class,
 				p -> genericType(p, actualTypeArguments));
 	}
@@ -189,9 +227,9 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 		Class<T> rawType = (Class<T>) type.getRawType();
 		java.lang.reflect.Type[] typeArguments = type.getActualTypeArguments();
 		if (typeArguments.length == 1)
-			return new Type<>(rawType, new Type[] {
+			return canonical(false, rawType, new Type[] {
 					genericType(typeArguments[0], actualTypeArguments) });
-		return new Type<>(rawType,
+		return canonical(false, rawType,
 				genericTypes(typeArguments, actualTypeArguments));
 	}
 
@@ -203,19 +241,29 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 	 */
 	private final boolean upperBound;
 
+	private final transient int hash;
+
+	/**
+	 * Lazily computed when first needed. As {@link Type}s are canonical this
+	 * is shared by all users of the same {@link Type} and is collected with
+	 * it.
+	 */
+	private transient volatile Supertypes supertypes;
+
 	private Type(boolean upperBound, Class<T> rawType, Type<?>[] parameters) {
 		assert (rawType != null);
 		this.rawType = primitiveAsWrapper(rawType);
 		this.params = parameters;
 		this.upperBound = upperBound;
+		this.hash = 31 * (31 * this.rawType.hashCode()
+			+ Boolean.hashCode(upperBound)) + Arrays.hashCode(parameters);
 	}
 
-	private Type(Class<T> rawType, Type<?>[] parameters) {
-		this(false, rawType, parameters);
-	}
-
-	private Type(Class<T> rawType) {
-		this(false, rawType, new Type<?>[0]);
+	/**
+	 * Makes sure deserialized {@link Type}s are canonical as well.
+	 */
+	private Object readResolve() {
+		return canonical(upperBound, rawType, params);
 	}
 
 	@Override
@@ -243,7 +291,7 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 	public Type<? extends T> upperBound(boolean upperBound) {
 		return this.upperBound == upperBound
 			? this
-			: new Type<>(upperBound, rawType, params);
+			: canonical(upperBound, rawType, params);
 	}
 
 	public Type<? extends T> asExactType() {
@@ -253,18 +301,20 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 	@SuppressWarnings("unchecked")
 	public Type<T[]> addArrayDimension() {
 		Object proto = Utils.newArray(rawType, 0);
-		return new Type<>(upperBound, (Class<T[]>) proto.getClass(), params);
+		return canonical(upperBound, (Class<T[]>) proto.getClass(), params);
 	}
 
 	public boolean equalTo(Type<?> other) {
+		// as types are canonical this is usually decided by the first two checks
 		return this == other
-			|| rawType == other.rawType && upperBound == other.upperBound
+			|| hash == other.hash && rawType == other.rawType
+				&& upperBound == other.upperBound
 				&& Utils.arrayEquals(params, other.params, Type::equalTo);
 	}
 
 	@Override
 	public int hashCode() {
-		return rawType.hashCode();
+		return hash;
 	}
 
 	@Override
@@ -284,7 +334,7 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 		Class<?> baseType = rawType;
 		while (baseType.isArray())
 			baseType = baseType.getComponentType();
-		return new Type<>(upperBound, (Class<B>) baseType, params);
+		return canonical(upperBound, (Class<B>) baseType, params);
 	}
 
 	/**
@@ -430,7 +480,7 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 				: this;
 		if (allTypeParametersAreUpperBounds())
 			return this;
-		return new Type<>(upperBound, rawType,
+		return canonical(upperBound, rawType,
 				Utils.arrayMap(params, Type::asUpperBound));
 	}
 
@@ -455,7 +505,7 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 
 	public Type<T> parameterized(Type<?>... params) {
 		checkTypeParameters(params);
-		return new Type<>(upperBound, rawType, params);
+		return canonical(upperBound, rawType, params.clone());
 	}
 
 	@Override
@@ -561,16 +611,11 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 				return (Type<? super T>) raw(rawSuperType);
 			failedCastTo(rawSuperType);
 		}
-		Object[] box = new Object[1];
-		walkSuperTypes(this, !rawSuperType.isInterface(),
-				rawSuperType.isInterface(), true, t -> {
-			boolean found = t.rawType == rawSuperType;
-			if (found) box[0] = t;
-			return !found;
-		});
-		if (box[0] == null)
-			failedCastTo(rawSuperType);
-		return (Type<? super T>) box[0];
+		for (Type<?> supertype : supertypesOf(this).all)
+			if (supertype.rawType == rawSuperType)
+				return (Type<? super T>) supertype;
+		failedCastTo(rawSuperType);
+		return null; // unreachable
 	}
 
 	private void failedCastTo(Class<?> rawSuperType) {
@@ -579,15 +624,38 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 	}
 
 	/**
-	 * @return a list of all super-classes and super-interfaces of this type
-	 *         starting with the direct super-class followed by the direct
-	 *         super-interfaces continuing by going up the type hierarchy.
+	 * @return an unmodifiable set of all super-classes and super-interfaces of
+	 *         this type in the order starting with the direct super-class
+	 *         followed by the direct super-interfaces continuing by going up
+	 *         the type hierarchy. The set is computed once and cached so the
+	 *         same set is returned by later calls.
 	 */
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	public Set<Type<? super T>> supertypes() {
-		Set<Type<?>> supertypes = new LinkedHashSet<>();
-		walkSuperTypes(this, true, true, false, supertypes::add);
-		return (Set) supertypes;
+		return (Set) supertypesOf(this).set;
+	}
+
+	private static Supertypes supertypesOf(Type<?> type) {
+		Supertypes res = type.supertypes;
+		if (res == null) {
+			// computing it twice in a race is harmless as the result is equal
+			Set<Type<?>> supertypes = new LinkedHashSet<>();
+			walkSuperTypes(type, true, true, false, supertypes::add);
+			res = new Supertypes(supertypes);
+			type.supertypes = res;
+		}
+		return res;
+	}
+
+	private static final class Supertypes {
+
+		final Type<?>[] all;
+		final Set<Type<?>> set;
+
+		Supertypes(Set<Type<?>> supertypes) {
+			this.all = supertypes.toArray(NO_PARAMS);
+			this.set = Collections.unmodifiableSet(supertypes);
+		}
 	}
 
 	/**
@@ -684,4 +752,67 @@ public final class Type<T> implements Qualifying<Type<?>>, Typed<T>,
 				"The primitive " + type + " cannot be wrapped yet!");
 	}
 
+	/**
+	 * A table of canonical {@link Type}s that only weakly refers to them.
+	 * Entries of collected {@link Type}s are removed on the next {@link
+	 * #intern(Type)}.
+	 */
+	private static final class Interner {
+
+		private final Map<Ref, Ref> table = new ConcurrentHashMap<>();
+		private final ReferenceQueue<Type<?>> collected = new ReferenceQueue<>();
+
+		@SuppressWarnings("unchecked")
+		<T> Type<T> intern(Type<T> candidate) {
+			removeCollected();
+			Ref ref = new Ref(candidate, collected);
+			Ref existing = table.get(ref);
+			while (true) {
+				if (existing == null) {
+					existing = table.putIfAbsent(ref, ref);
+					if (existing == null)
+						return candidate;
+				}
+				Type<?> canonical = existing.get();
+				if (canonical != null)
+					return (Type<T>) canonical;
+				table.remove(existing, existing);
+				existing = null;
+			}
+		}
+
+		private void removeCollected() {
+			Reference<? extends Type<?>> ref = collected.poll();
+			while (ref != null) {
+				table.remove(ref);
+				ref = collected.poll();
+			}
+		}
+	}
+
+	private static final class Ref extends WeakReference<Type<?>> {
+
+		private final int hash;
+
+		Ref(Type<?> referent, ReferenceQueue<Type<?>> queue) {
+			super(referent, queue);
+			this.hash = referent.hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof Ref) || ((Ref) obj).hash != hash)
+				return false;
+			Type<?> a = get();
+			Type<?> b = ((Ref) obj).get();
+			return a != null && b != null && a.equalTo(b);
+		}
+	}
 }
@@ -0,0 +1,19 @@
+/**
+ * JMH benchmarks of the container hot paths.
+ * <p>
+ * The benchmarks are compiled by the build but not run as part of it. To run
+ * them use {@link test.benchmark.Benchmarks} which profiles allocations by
+ * default.
+ */
+open module test.benchmark {
+
+	requires jmh.core;
+	requires static jmh.generator.annprocess; // <- generates the JMH harness
+
+	/* core */
+	requires se.jbee.inject;
+	/* and the add-ons */
+	requires se.jbee.inject.contract;
+
+	exports test.benchmark;
+}
@@ -0,0 +1,31 @@
+package test.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the {@link GCProfiler} so that the allocation rate
+ * per operation ({@code gc.alloc.rate.norm}) is reported alongside the time.
+ * <p>
+ * Arguments are patterns of the benchmarks to include, by default all
+ * benchmarks in this package are run.
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+		throw new UnsupportedOperationException("util");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		ChainedOptionsBuilder options = new OptionsBuilder() //
+				.addProfiler(GCProfiler.class);
+		if (args.length == 0)
+			options.include(Benchmarks.class.getPackage().getName() + ".*");
+		for (String include : args)
+			options.include(include);
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,58 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Bootstrap#injector(Class)} for a small module, this is the
+ * fixed cost each container has independent of the number of bindings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class BootstrapBenchmark {
+
+	public interface Plugin {}
+
+	public static class Plugin1 implements Plugin {}
+
+	public static class Plugin2 implements Plugin {}
+
+	public static class Service {
+
+		public Service(Plugin[] plugins, String name) {
+			// just needs to be injected
+		}
+	}
+
+	public static class BootstrapBenchmarkModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind(String.class).to("name");
+			bind("answer", int.class).to(42);
+			per(Scope.application).construct(Service.class);
+			multibind(Plugin.class).to(Plugin1.class);
+			multibind(Plugin.class).to(Plugin2.class);
+		}
+	}
+
+	@Benchmark
+	public Injector bootstrap() {
+		return Bootstrap.injector(BootstrapBenchmarkModule.class);
+	}
+
+	@Benchmark
+	public Service bootstrapAndResolve() {
+		return Bootstrap.injector(BootstrapBenchmarkModule.class).resolve(
+				Service.class);
+	}
+}
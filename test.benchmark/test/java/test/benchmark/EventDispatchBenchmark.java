@@ -0,0 +1,79 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.contract.ContractModule;
+import se.jbee.inject.contract.EventProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatch of events through the proxy of a handler interface
+ * processed by the {@link se.jbee.inject.contract.ConcurrentEventProcessor}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class EventDispatchBenchmark {
+
+	public interface Handler {
+
+		int compute(int x, int y);
+
+		void onChange(int x);
+	}
+
+	public static class Service implements Handler {
+
+		volatile int last;
+
+		@Override
+		public int compute(int x, int y) {
+			return x + y;
+		}
+
+		@Override
+		public void onChange(int x) {
+			last = x;
+		}
+	}
+
+	public static class EventDispatchBenchmarkModule extends ContractModule {
+
+		@Override
+		protected void declare() {
+			handle(Handler.class);
+			construct(Service.class);
+		}
+	}
+
+	private Injector context;
+	private Handler handler;
+	private int x;
+
+	@Setup
+	public void setup() {
+		context = Bootstrap.injector(EventDispatchBenchmarkModule.class);
+		handler = context.resolve(Handler.class);
+		context.resolve(Service.class); // registers the handler
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		context.resolve(EventProcessor.class).close();
+	}
+
+	@Benchmark
+	public int dispatchCompute() {
+		return handler.compute(x++, 1);
+	}
+
+	@Benchmark
+	public void dispatchVoid() {
+		handler.onChange(x++);
+	}
+}
@@ -0,0 +1,87 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Bootstrap#injector(Env, Class)} of a {@link SyntheticGraph}
+ * with a growing number of bindings. Each bootstrap is measured on its own as
+ * a container is only bootstrapped once.
+ * <p>
+ * Besides the time {@link #retainedHeap(RetainedHeap)} reports the heap still
+ * used by the {@link Injector} after the bootstrap as the {@code
+ * retainedBytes} counter.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class LargeGraphBootstrapBenchmark {
+
+	@State(org.openjdk.jmh.annotations.Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class RetainedHeap {
+
+		public long retainedBytes;
+
+		/**
+		 * Keeps the measured {@link Injector} reachable while measuring
+		 */
+		Injector context;
+	}
+
+	@Param({ "1000", "10000", "100000" })
+	public int bindings;
+
+	private Env env;
+
+	@Setup
+	public void setup() {
+		env = SyntheticGraph.env(bindings);
+	}
+
+	@Benchmark
+	public Injector bootstrap() {
+		return Bootstrap.injector(env, SyntheticGraph.class);
+	}
+
+	/**
+	 * {@link AuxCounters.Type#EVENTS} are summed over all iterations so this is
+	 * measured in a single iteration.
+	 */
+	@Benchmark
+	@Measurement(iterations = 1)
+	public Injector retainedHeap(RetainedHeap heap) {
+		heap.context = null;
+		long before = usedHeapAfterGC();
+		heap.context = Bootstrap.injector(env, SyntheticGraph.class);
+		heap.retainedBytes = usedHeapAfterGC() - before;
+		return heap.context;
+	}
+
+	/**
+	 * Objects only reachable through references (like weak keys) are freed
+	 * by later collections than the one clearing the reference so collection
+	 * is repeated until the used heap does no longer shrink.
+	 */
+	private static long usedHeapAfterGC() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		int stable = 0;
+		for (int i = 0; i < 10 && stable < 3; i++) {
+			memory.gc();
+			long now = memory.getHeapMemoryUsage().getUsed();
+			stable = now < used ? 0 : stable + 1;
+			used = Math.min(used, now);
+		}
+		return used;
+	}
+}
@@ -0,0 +1,45 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.lang.Lazy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures {@link Lazy#get(Supplier)} once the value is initialised under
+ * contention as well as the cost of the initialisation itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class LazyBenchmark {
+
+	private static final Supplier<Object> INITIAL_VALUE = Object::new;
+
+	private final Lazy<Object> initialised = new Lazy<>();
+
+	@Setup
+	public void setup() {
+		initialised.get(INITIAL_VALUE);
+	}
+
+	@Benchmark
+	public Object getInitialised() {
+		return initialised.get(INITIAL_VALUE);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object getInitialisedContended() {
+		return initialised.get(INITIAL_VALUE);
+	}
+
+	@Benchmark
+	public Object getUninitialised() {
+		return new Lazy<>().get(INITIAL_VALUE);
+	}
+}
@@ -0,0 +1,101 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.config.Get;
+import se.jbee.inject.config.Invoke;
+import se.jbee.inject.config.New;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflection based {@link New}, {@link Invoke} and {@link Get}
+ * strategies with their {@link java.lang.invoke.MethodHandle} based variants,
+ * both called directly and as part of resolving a constructed instance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ReflectBenchmark {
+
+	public static class Bean {
+
+		public final Integer value;
+
+		public Bean(Integer value) {
+			this.value = value;
+		}
+
+		public Integer twice(Integer x) {
+			return 2 * x;
+		}
+	}
+
+	public static class ReflectBenchmarkModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind(Integer.class).to(42);
+			per(Scope.injection).construct(Bean.class);
+		}
+	}
+
+	@Param({ "reflect", "method-handle" })
+	public String strategy;
+
+	private New newStrategy;
+	private Invoke invokeStrategy;
+	private Get getStrategy;
+	private Constructor<Bean> constructor;
+	private Method method;
+	private Field field;
+	private Object[] args;
+	private Bean bean;
+	private Injector context;
+
+	@Setup
+	public void setup() throws Exception {
+		boolean methodHandles = "method-handle".equals(strategy);
+		newStrategy = methodHandles ? New.METHOD_HANDLE : Constructor::newInstance;
+		invokeStrategy = methodHandles ? Invoke.METHOD_HANDLE : Method::invoke;
+		getStrategy = methodHandles ? Get.METHOD_HANDLE : Field::get;
+		constructor = Bean.class.getConstructor(Integer.class);
+		method = Bean.class.getMethod("twice", Integer.class);
+		field = Bean.class.getField("value");
+		args = new Object[] { 42 };
+		bean = new Bean(42);
+		context = Bootstrap.injector(Bootstrap.DEFAULT_ENV.with(
+				Env.USE_METHOD_HANDLES, boolean.class, methodHandles),
+				ReflectBenchmarkModule.class);
+	}
+
+	@Benchmark
+	public Bean construct() throws Exception {
+		return newStrategy.call(constructor, args);
+	}
+
+	@Benchmark
+	public Object invoke() throws Exception {
+		return invokeStrategy.call(method, bean, args);
+	}
+
+	@Benchmark
+	public Object get() throws Exception {
+		return getStrategy.call(field, bean);
+	}
+
+	@Benchmark
+	public Bean resolveConstructed() {
+		return context.resolve(Bean.class);
+	}
+}
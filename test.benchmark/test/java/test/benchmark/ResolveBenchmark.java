@@ -0,0 +1,134 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Provider;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.binder.Installs;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.defaults.DefaultFeature;
+import se.jbee.inject.defaults.DefaultFeatures;
+import se.jbee.lang.Type;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * Resolves of unscoped (singleton) values through the different ways a
+ * {@link se.jbee.inject.Dependency} can be matched by the container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ResolveBenchmark {
+
+	public interface Plugin {}
+
+	public static class Plugin1 implements Plugin {}
+
+	public static class Plugin2 implements Plugin {}
+
+	public static class Plugin3 implements Plugin {}
+
+	public static class Service {}
+
+	public static class Client {
+
+		final Service service;
+
+		public Client(Service service) {
+			this.service = service;
+		}
+	}
+
+	@Installs(features = DefaultFeature.class, by = DefaultFeatures.class)
+	@DefaultFeatures({ DefaultFeature.PROVIDER, DefaultFeature.OPTIONAL })
+	public static class ResolveBenchmarkModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			construct(Service.class);
+			construct(Client.class);
+			bind(String.class).to("singleton");
+			injectingInto(Client.class).bind(String.class).to("targeted");
+			multibind(Plugin.class).to(Plugin1.class);
+			multibind(Plugin.class).to(Plugin2.class);
+			multibind(Plugin.class).to(Plugin3.class);
+		}
+	}
+
+	private static final Type<Optional<String>> OPTIONAL_STRING = optionalTypeOf(
+			String.class);
+	private static final Type<Optional<Long>> OPTIONAL_LONG = optionalTypeOf(
+			Long.class);
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <T> Type<Optional<T>> optionalTypeOf(Class<T> type) {
+		return (Type) raw(Optional.class).parameterized(type);
+	}
+
+	private Injector context;
+	private Dependency<String> singleton;
+	private Dependency<String> targeted;
+	private Dependency<Provider<Service>> provider;
+
+	@Setup
+	public void setup() {
+		context = Bootstrap.injector(ResolveBenchmarkModule.class);
+		singleton = dependency(String.class);
+		targeted = dependency(String.class).injectingInto(Client.class);
+		provider = dependency(Provider.providerTypeOf(Service.class));
+	}
+
+	@Benchmark
+	public String resolveSingletonByClass() {
+		return context.resolve(String.class);
+	}
+
+	@Benchmark
+	public String resolveSingletonByDependency() {
+		return context.resolve(singleton);
+	}
+
+	@Benchmark
+	public Client resolveConstructed() {
+		return context.resolve(Client.class);
+	}
+
+	@Benchmark
+	public String resolveTargeted() {
+		return context.resolve(targeted);
+	}
+
+	@Benchmark
+	public Plugin[] resolveMultibindArray() {
+		return context.resolve(Plugin[].class);
+	}
+
+	@Benchmark
+	public Service resolveViaProvider() {
+		return context.resolve(provider).provide();
+	}
+
+	@Benchmark
+	public Optional<String> resolveOptionalPresent() {
+		return context.resolve(OPTIONAL_STRING);
+	}
+
+	@Benchmark
+	public Optional<Long> resolveOptionalAbsent() {
+		return context.resolve(OPTIONAL_LONG);
+	}
+
+	@Benchmark
+	public Optional<Long> tryResolveAbsent() {
+		return context.tryResolve(Long.class);
+	}
+}
@@ -0,0 +1,102 @@
+package test.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.util.concurrent.TimeUnit;
+
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Resolves of constructed instances in the different standard {@link Scope}s.
+ * <p>
+ * The {@link Scope#application} variants are also measured with concurrent
+ * threads to reveal contention in the scope.
+ * <p>
+ * The variants resolving a prepared {@link Dependency} of an instance that
+ * already exists in its {@link Scope} should not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ScopedResolveBenchmark {
+
+	public static class ApplicationScoped {}
+
+	public static class ThreadScoped {}
+
+	public static class DependencyScoped {}
+
+	public static class InjectionScoped {}
+
+	public static class ScopedResolveBenchmarkModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.application).construct(ApplicationScoped.class);
+			per(Scope.thread).construct(ThreadScoped.class);
+			per(Scope.dependency).construct(DependencyScoped.class);
+			per(Scope.injection).construct(InjectionScoped.class);
+		}
+	}
+
+	private Injector context;
+	private Dependency<ApplicationScoped> applicationScoped;
+	private Dependency<ThreadScoped> threadScoped;
+
+	@Setup
+	public void setup() {
+		context = Bootstrap.injector(ScopedResolveBenchmarkModule.class);
+		applicationScoped = dependency(ApplicationScoped.class);
+		threadScoped = dependency(ThreadScoped.class);
+	}
+
+	@Benchmark
+	public ApplicationScoped resolveApplicationScoped() {
+		return context.resolve(ApplicationScoped.class);
+	}
+
+	@Benchmark
+	public ApplicationScoped resolveApplicationScopedByDependency() {
+		return context.resolve(applicationScoped);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public ApplicationScoped resolveApplicationScopedContended() {
+		return context.resolve(ApplicationScoped.class);
+	}
+
+	@Benchmark
+	public ThreadScoped resolveThreadScoped() {
+		return context.resolve(ThreadScoped.class);
+	}
+
+	@Benchmark
+	public ThreadScoped resolveThreadScopedByDependency() {
+		return context.resolve(threadScoped);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public ThreadScoped resolveThreadScopedContended() {
+		return context.resolve(ThreadScoped.class);
+	}
+
+	@Benchmark
+	public DependencyScoped resolveDependencyScoped() {
+		return context.resolve(DependencyScoped.class);
+	}
+
+	@Benchmark
+	public InjectionScoped resolveInjectionScoped() {
+		return context.resolve(InjectionScoped.class);
+	}
+}
@@ -0,0 +1,158 @@
+package test.benchmark;
+
+import se.jbee.inject.Env;
+import se.jbee.inject.Instance;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.binder.BootstrapperBundle;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.lang.reflect.Method;
+
+import static se.jbee.inject.Hint.constant;
+import static se.jbee.inject.Hint.relativeReferenceTo;
+import static se.jbee.inject.Instance.instance;
+import static se.jbee.inject.Name.named;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * A generated graph of bindings used to measure how bootstrapping scales with
+ * the number of bindings.
+ * <p>
+ * The number of bindings is given by the {@link Env} property {@link #SIZE}.
+ * They are split evenly between the kinds of bindings commonly found in
+ * applications, each declared by its own module:
+ * <ul>
+ * <li>{@link Named}: named constants</li>
+ * <li>{@link Constructors}: named instances constructed with a reference to a
+ * named constant</li>
+ * <li>{@link Producers}: named instances produced by a factory method</li>
+ * <li>{@link Targeted}: constants only injected into a particular named
+ * instance</li>
+ * <li>{@link Multibinds}: references to the constructed instances collected
+ * as {@link Node}{@code []}</li>
+ * </ul>
+ */
+public final class SyntheticGraph extends BootstrapperBundle {
+
+	/**
+	 * The {@code int} {@link Env} property for the total number of bindings
+	 * declared by the graph.
+	 */
+	public static final String SIZE = "synthetic-graph-size";
+
+	private static final int KINDS = 5;
+
+	public static Env env(int size) {
+		return Bootstrap.DEFAULT_ENV.with(SIZE, int.class, size);
+	}
+
+	public static Instance<String> label(int index) {
+		return instance(named("label" + index), raw(String.class));
+	}
+
+	public static Instance<Node> constructed(int index) {
+		return instance(named("constructed" + index), raw(Node.class));
+	}
+
+	public static Instance<Node> produced(int index) {
+		return instance(named("produced" + index), raw(Node.class));
+	}
+
+	public static Instance<Node> targeted(int index) {
+		return instance(named("targeted" + index), raw(Node.class));
+	}
+
+	public static final class Node {
+
+		public final String label;
+
+		public Node(String label) {
+			this.label = label;
+		}
+
+		public static Node produce(Integer index) {
+			return new Node("produced" + index);
+		}
+	}
+
+	@Override
+	protected void bootstrap() {
+		install(Named.class);
+		install(Constructors.class);
+		install(Producers.class);
+		install(Targeted.class);
+		install(Multibinds.class);
+	}
+
+	static abstract class SyntheticModule extends BinderModule {
+
+		/**
+		 * @return number of instances of this module's kind
+		 */
+		final int count() {
+			return Math.max(1, env().property(SIZE, int.class) / KINDS);
+		}
+	}
+
+	static final class Named extends SyntheticModule {
+
+		@Override
+		protected void declare() {
+			for (int i = 0; i < count(); i++)
+				bind(label(i)).to("label" + i);
+		}
+	}
+
+	static final class Constructors extends SyntheticModule {
+
+		@Override
+		protected void declare() {
+			for (int i = 0; i < count(); i++)
+				bind(constructed(i)).toConstructor(
+						relativeReferenceTo(label(i)));
+		}
+	}
+
+	static final class Producers extends SyntheticModule {
+
+		@Override
+		protected void declare() {
+			Method produce;
+			try {
+				produce = Node.class.getMethod("produce", Integer.class);
+			} catch (NoSuchMethodException e) {
+				throw new AssertionError(e);
+			}
+			for (int i = 0; i < count(); i++) {
+				Instance<Node> produced = produced(i);
+				autobind().nameBy(target -> produced.name) //
+						.asProducer(produce, null, constant(i));
+			}
+		}
+	}
+
+	/**
+	 * Declares two bindings per instance, the targeted constant and the
+	 * instance it is injected into.
+	 */
+	static final class Targeted extends SyntheticModule {
+
+		@Override
+		protected void declare() {
+			for (int i = 0; i < count() / 2; i++) {
+				Instance<Node> targeted = targeted(i);
+				bind(targeted).toConstructor();
+				injectingInto(targeted).bind(String.class).to("targeted" + i);
+			}
+		}
+	}
+
+	static final class Multibinds extends SyntheticModule {
+
+		@Override
+		protected void declare() {
+			for (int i = 0; i < count(); i++)
+				multibind(Node.class).to(constructed(i));
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package test.integration.api;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injection;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Locator;
+import se.jbee.inject.Scope;
+import se.jbee.inject.ScopeLifeCycle;
+import se.jbee.inject.UnresolvableDependency.DependencyCycle;
+import se.jbee.inject.UnresolvableDependency.UnstableDependency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * Tests the {@link Injection} hierarchy of a {@link Dependency}.
+ */
+class TestDependency {
+
+	private static final Class<?>[] TARGETS = { Integer.class, Long.class,
+			Float.class, Double.class, Short.class, Byte.class };
+
+	private static Dependency<String> deep() {
+		Dependency<String> dep = dependency(String.class);
+		for (Class<?> target : TARGETS)
+			dep = dep.injectingInto(target);
+		return dep;
+	}
+
+	@Test
+	void hierarchyIsOrderedFromBottomToTop() {
+		Dependency<String> dep = deep();
+		assertEquals(TARGETS.length, dep.injectionDepth());
+		List<Class<?>> actual = new ArrayList<>();
+		for (Injection i : dep)
+			actual.add(i.target.type().rawType);
+		for (int i = 0; i < TARGETS.length; i++) {
+			assertSame(TARGETS[i], actual.get(i));
+			assertSame(TARGETS[TARGETS.length - 1 - i],
+					dep.target(i).type().rawType);
+		}
+		assertEquals(Instance.ANY, dep.target(TARGETS.length));
+	}
+
+	@Test
+	void equalHierarchiesAreEqual() {
+		Dependency<String> a = deep();
+		Dependency<String> b = deep();
+		assertNotSame(a, b);
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertNotEquals(a, a.uninject());
+		assertEquals(a.uninject(), b.uninject());
+		assertEquals(a, a.uninject().injectingInto(Byte.class));
+		assertNotEquals(a.uninject().injectingInto(Character.class), a);
+	}
+
+	@Test
+	void uninjectRemovesTheTopInjection() {
+		Dependency<String> dep = deep().uninject();
+		assertEquals(TARGETS.length - 1, dep.injectionDepth());
+		assertSame(Short.class, dep.target().type().rawType);
+		assertTrue(dependency(String.class).injectingInto(Long.class)
+				.uninject().isNotTargeted());
+	}
+
+	@Test
+	void cyclesAreDetectedAtAnyDepth() {
+		Dependency<String> dep = deep();
+		for (Class<?> target : TARGETS)
+			assertThrows(DependencyCycle.class,
+					() -> dep.injectingInto(target));
+		assertEquals(TARGETS.length + 1,
+				dep.injectingInto(Character.class).injectionDepth());
+	}
+
+	@Test
+	void unstableScopeNestingIsDetectedBelowIgnoredScopes() {
+		ScopeLifeCycle application = ScopeLifeCycle.singleton.derive(
+				Scope.application);
+		ScopeLifeCycle injection = ScopeLifeCycle.unstable.derive(
+				Scope.injection);
+		Dependency<String> dep = dependency(String.class) //
+				.injectingInto(new Locator<>(Instance.anyOf(raw(Integer.class))),
+						application);
+		for (Class<?> target : new Class<?>[] { Long.class, Float.class })
+			dep = dep.injectingInto(target);
+		Dependency<String> finalDep = dep;
+		assertThrows(UnstableDependency.class,
+				() -> finalDep.injectingInto(
+						new Locator<>(Instance.anyOf(raw(Double.class))),
+						injection));
+	}
+
+	@Test
+	void ignoredScopingKeepsTheHierarchy() {
+		Dependency<String> dep = deep();
+		Dependency<String> ignored = dep.ignoredScoping();
+		assertEquals(dep, ignored);
+		for (Injection i : ignored)
+			assertTrue(i.lifeCycle.isIgnored());
+	}
+
+	@Test
+	void injectableIntoChecksLikeInjectingInto() {
+		Dependency<String> dep = deep();
+		for (Class<?> target : TARGETS)
+			assertThrows(DependencyCycle.class, () -> dep.ensureInjectableInto(
+					new Locator<>(Instance.defaultInstanceOf(raw(target))),
+					ScopeLifeCycle.ignore));
+		assertDoesNotThrow(() -> dep.ensureInjectableInto(
+				new Locator<>(Instance.defaultInstanceOf(raw(Character.class))),
+				ScopeLifeCycle.ignore));
+		ScopeLifeCycle application = ScopeLifeCycle.singleton.derive(
+				Scope.application);
+		ScopeLifeCycle injection = ScopeLifeCycle.unstable.derive(
+				Scope.injection);
+		Dependency<String> scoped = dependency(String.class).injectingInto(
+				new Locator<>(Instance.anyOf(raw(Integer.class))), application);
+		assertThrows(UnstableDependency.class, () -> scoped.ensureInjectableInto(
+				new Locator<>(Instance.anyOf(raw(Double.class))), injection));
+		assertDoesNotThrow(() -> dependency(String.class).ensureInjectableInto(
+				new Locator<>(Instance.anyOf(raw(Double.class))), injection));
+	}
+}
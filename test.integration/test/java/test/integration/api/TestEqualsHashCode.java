@@ -12,6 +12,7 @@ import java.lang.reflect.Modifier;
 
 import static java.lang.reflect.Modifier.isFinal;
 import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Modifier.isTransient;
 import static org.junit.jupiter.api.Assertions.*;
 import static se.jbee.lang.Utils.newArray;
 
@@ -80,7 +81,11 @@ class TestEqualsHashCode {
 		assertEquals(a.hashCode(), a.hashCode());
 		assertEquals(a.hashCode(), a2.hashCode());
 		assertNotSame(a, b);
-		assertNotSame(a, a2);
+		if (cls == Type.class) {
+			assertSame(a, a2, "Type is not canonical");
+		} else {
+			assertNotSame(a, a2);
+		}
 		assertNotEquals(a, b);
 		assertNotEquals(b, a);
 		assertNotEquals(a, null);
@@ -88,7 +93,7 @@ class TestEqualsHashCode {
 
 		assertTrue(isFinal(cls.getModifiers()), "Value type is not final.");
 		for (Field f : cls.getDeclaredFields()) {
-			if (!f.isSynthetic()) {
+			if (!f.isSynthetic() && !isTransient(f.getModifiers())) {
 				assertTrue(isFinal(f.getModifiers()),
 						"Field " + f.getName() + " is not final.");
 			}
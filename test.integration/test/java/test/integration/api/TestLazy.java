@@ -0,0 +1,157 @@
+package test.integration.api;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.lang.Attempt;
+import se.jbee.lang.Lazy;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the once-initialisation semantics of {@link Lazy}.
+ */
+class TestLazy {
+
+	@Test
+	void initialValueIsOnlyComputedOnce() {
+		Lazy<String> lazy = new Lazy<>();
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals("a0", lazy.get(() -> "a" + calls.getAndIncrement()));
+		assertEquals("a0", lazy.get(() -> "b"));
+		assertEquals(1, calls.get());
+		assertTrue(lazy.isInitialised());
+	}
+
+	@Test
+	void nullIsAValidValue() {
+		Lazy<String> lazy = new Lazy<>();
+		AtomicInteger calls = new AtomicInteger();
+		assertNull(lazy.get(() -> {
+			calls.incrementAndGet();
+			return null;
+		}));
+		assertNull(lazy.get(() -> "b"));
+		assertEquals(1, calls.get());
+		assertTrue(lazy.isInitialised());
+	}
+
+	@Test
+	void failedInitialisationCanBeRetried() {
+		Lazy<String> lazy = new Lazy<>();
+		assertThrows(IllegalStateException.class, () -> lazy.get(() -> {
+			throw new IllegalStateException();
+		}));
+		assertFalse(lazy.isInitialised());
+		assertEquals("b", lazy.get(() -> "b"));
+	}
+
+	@Test
+	void failedInitialisationWithCheckedExceptionCanBeRetried() {
+		Lazy<String> lazy = new Lazy<>();
+		assertThrows(IOException.class,
+				() -> lazy.get(() -> sneaky(new IOException("checked"))));
+		assertFalse(lazy.isInitialised());
+		assertEquals("b", lazy.get(() -> "b"));
+	}
+
+	@Test
+	void waitingThreadsGetCheckedExceptionsOfTheInitialisingThread()
+			throws Exception {
+		Attempt attempt = new Attempt();
+		CompletableFuture<Object> waiting = CompletableFuture.supplyAsync(
+				attempt::await);
+		IOException cause = new IOException("checked");
+		attempt.fail(cause);
+		ExecutionException ex = assertThrows(ExecutionException.class,
+				() -> waiting.get(5, TimeUnit.SECONDS));
+		assertSame(cause, ex.getCause());
+	}
+
+	@Test
+	void recursiveInitialisationFails() {
+		Lazy<String> lazy = new Lazy<>();
+		assertThrows(IllegalStateException.class,
+				() -> lazy.get(() -> lazy.get(() -> "a")));
+	}
+
+	@Test
+	void waitingThreadsGetTheValueOfTheInitialisingThread() throws Exception {
+		Lazy<Object> lazy = new Lazy<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Object value = new Object();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			Future<Object> first = pool.submit(() -> lazy.get(() -> {
+				calls.incrementAndGet();
+				started.countDown();
+				await(release);
+				return value;
+			}));
+			started.await();
+			Future<Object> second = pool.submit(() -> lazy.get(Object::new));
+			Future<Object> third = pool.submit(() -> lazy.get(Object::new));
+			release.countDown();
+			assertSame(value, first.get(5, TimeUnit.SECONDS));
+			assertSame(value, second.get(5, TimeUnit.SECONDS));
+			assertSame(value, third.get(5, TimeUnit.SECONDS));
+			assertEquals(1, calls.get());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void waitingThreadsGetTheFailureOfTheInitialisingThread() throws Exception {
+		Lazy<Object> lazy = new Lazy<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch waiting = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> first = pool.submit(() -> lazy.get(() -> {
+				started.countDown();
+				await(waiting);
+				throw new IllegalStateException("failed");
+			}));
+			started.await();
+			Future<Object> second = pool.submit(() -> {
+				waiting.countDown();
+				return lazy.get(Object::new);
+			});
+			ExecutionException firstFailure = assertThrows(
+					ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+			assertEquals("failed", firstFailure.getCause().getMessage());
+			// second either waited and failed or came too late and retried
+			try {
+				assertNotNull(second.get(5, TimeUnit.SECONDS));
+			} catch (ExecutionException e) {
+				assertSame(firstFailure.getCause(), e.getCause());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T, E extends Throwable> T sneaky(Throwable ex) throws E {
+		throw (E) ex;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
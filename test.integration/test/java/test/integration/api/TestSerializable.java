@@ -8,6 +8,7 @@ import java.io.*;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -21,6 +22,12 @@ class TestSerializable {
 		assertSerializable(Type.raw(List.class).parameterized(Float.class));
 	}
 
+	@Test
+	void typeIsCanonicalWhenDeserialized() throws Exception {
+		Type<?> type = Type.raw(List.class).parameterized(Float.class);
+		assertSame(type, deserialize(serialize(type)));
+	}
+
 	@Test
 	void nameIsSerializable() {
 		assertSerializable(Name.ANY);
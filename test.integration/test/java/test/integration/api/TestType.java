@@ -23,14 +23,17 @@ class TestType {
 
 	private static class Bar<A, B> extends Foo<B, String> implements Baz<A> {
 		// needed to check supertypes() method
+		private static final long serialVersionUID = 1L;
 	}
 
 	private static class Foo<A, B> extends Qux<A> implements RandomAccess {
 		// needed to check supertypes() method
+		private static final long serialVersionUID = 1L;
 	}
 
 	private static class Qux<R> implements QuxQux<R> {
 		// needed to check supertypes() method
+		private static final long serialVersionUID = 1L;
 	}
 
 	private interface QuxQux<T> extends Serializable {
@@ -456,6 +459,59 @@ class TestType {
 				Type.classType(RecursiveType.class).toString());
 	}
 
+	@Test
+	void rawTypesAreCanonical() {
+		assertSame(raw(String.class), raw(String.class));
+		assertSame(raw(Integer.class), raw(int.class));
+		assertSame(raw(String.class).asUpperBound(),
+				raw(String.class).asUpperBound());
+		assertSame(raw(String.class),
+				raw(String.class).asUpperBound().asExactType());
+		assertSame(raw(String[].class), raw(String.class).addArrayDimension());
+	}
+
+	@Test
+	void parameterizedTypesAreCanonical() throws Exception {
+		Type<List> listOfStrings = raw(List.class).parameterized(String.class);
+		assertSame(listOfStrings, raw(List.class).parameterized(String.class));
+		assertSame(listOfStrings, listTypeOf(String.class));
+		assertSame(listOfStrings, fieldType(
+				TestType.class.getDeclaredField("aStringListField")));
+		assertSame(listOfStrings.parameterizedAsUpperBounds(),
+				raw(List.class).parameterized(
+						raw(String.class).asUpperBound()));
+		assertNotSame(listOfStrings,
+				raw(List.class).parameterized(Integer.class));
+	}
+
+	@Test
+	void parameterizedTypesAreNotChangedByChangingTheArgumentsArray() {
+		Type<?>[] params = { raw(String.class) };
+		Type<List> listOfStrings = raw(List.class).parameterized(params);
+		params[0] = raw(Integer.class);
+		assertSame(raw(String.class), listOfStrings.parameter(0));
+		assertSame(listOfStrings, listTypeOf(String.class));
+	}
+
+	@Test
+	void supertypesAreComputedOnce() {
+		Type<Bar> bar = raw(Bar.class).parameterized(Integer.class, Float.class);
+		assertSame(bar.supertypes(), bar.supertypes());
+		assertThrows(UnsupportedOperationException.class,
+				() -> bar.supertypes().clear());
+	}
+
+	@Test
+	void toSuperTypeIsOneOfTheSupertypes() {
+		Type<Bar> bar = raw(Bar.class).parameterized(Integer.class, Float.class);
+		for (Class<?> rawSuperType : new Class[] { Foo.class, Qux.class,
+				Baz.class, QuxQux.class })
+			assertTrue(bar.supertypes().contains(bar.toSuperType(rawSuperType)));
+		assertSame(bar.toSuperType(Qux.class), bar.toSuperType(Qux.class));
+		assertThrows(ClassCastException.class,
+				() -> bar.toSuperType(List.class));
+	}
+
 	private static void assertContains(Set<? extends Type<?>> actual, Type<?> expected) {
 		for (Type<?> type : actual) {
 			if (type.equalTo(expected)) {
@@ -8,6 +8,7 @@ import se.jbee.inject.binder.BinderModule;
 import se.jbee.inject.bootstrap.Bootstrap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -29,12 +30,26 @@ class TestBasicScopedBinds {
 		// just to demo
 	}
 
+	public static class Qux {
+
+		@SuppressWarnings("unused")
+		public Qux(Baz baz) {
+			// it is just about the instances
+		}
+	}
+
+	public static class Baz {
+		// just to demo
+	}
+
 	private static class TestBasicScopedBindsModule extends BinderModule {
 
 		@Override
 		protected void declare() {
 			per(Scope.application).construct(Foo.class);
 			per(Scope.injection).construct(Bar.class);
+			per(Scope.application).construct(Qux.class);
+			per(Scope.thread).construct(Baz.class);
 		}
 	}
 
@@ -49,4 +64,14 @@ class TestBasicScopedBinds {
 				+ "\tinto: test.integration.bind.TestBasicScopedBinds.Foo scoped application",
 				ex.getMessage());
 	}
+
+	@Test
+	void injectingAnExistingThreadScopedInstanceIntoAppScopedInstanceThrowsAnException() {
+		assertNotNull(context.resolve(Baz.class));
+		Exception ex = assertThrows(UnstableDependency.class, () -> context.resolve(Qux.class));
+		assertEquals("Unstable dependency injection\n"
+				+ "\t  of: test.integration.bind.TestBasicScopedBinds.Baz scoped thread\n"
+				+ "\tinto: test.integration.bind.TestBasicScopedBinds.Qux scoped application",
+				ex.getMessage());
+	}
 }
@@ -0,0 +1,133 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Scope;
+import se.jbee.inject.UnresolvableDependency.DependencyCycle;
+import se.jbee.inject.scope.ApplicationScope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the once-initialisation of the slots in the {@link ApplicationScope}.
+ */
+class TestFeatureApplicationScope {
+
+	private final int generators = 3;
+	private final Scope scope = new ApplicationScope();
+	private final Dependency<String> dep = dependency(String.class);
+
+	@Test
+	void onceProvidedInstancesAreCachedInScope() {
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals("a0", scope.provide(1, generators, dep,
+				() -> "a" + calls.getAndIncrement()));
+		assertEquals("a0", scope.provide(1, generators, dep, () -> "b"));
+		assertEquals("c", scope.provide(2, generators, dep, () -> "c"));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void nullIsCachedInScope() {
+		AtomicInteger calls = new AtomicInteger();
+		assertNull(scope.provide(0, generators, dep, () -> {
+			calls.incrementAndGet();
+			return null;
+		}));
+		assertNull(scope.provide(0, generators, dep, () -> "b"));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void failedProvisionCanBeRetried() {
+		assertThrows(IllegalStateException.class,
+				() -> scope.provide(1, generators, dep, () -> {
+					throw new IllegalStateException();
+				}));
+		assertEquals("b", scope.provide(1, generators, dep, () -> "b"));
+	}
+
+	@Test
+	void recursiveProvisionIsACycle() {
+		assertThrows(DependencyCycle.class,
+				() -> scope.provide(1, generators, dep,
+						() -> scope.provide(1, generators, dep, () -> "a")));
+	}
+
+	@Test
+	void providerIsCalledOnceWhenContended() throws Exception {
+		int threads = 8;
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++)
+				results.add(pool.submit(() -> {
+					start.await();
+					return scope.provide(1, generators, dep, () -> {
+						calls.incrementAndGet();
+						Thread.yield();
+						return new String("contended");
+					});
+				}));
+			start.countDown();
+			String first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<String> res : results)
+				assertSame(first, res.get(5, TimeUnit.SECONDS));
+			assertEquals(1, calls.get());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void waitingThreadsGetTheFailureOfTheInitialisingThread() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		IllegalStateException failure = new IllegalStateException("failed");
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> first = pool.submit(
+					() -> scope.provide(1, generators, dep, () -> {
+						started.countDown();
+						await(release);
+						throw failure;
+					}));
+			started.await();
+			Future<String> second = pool.submit(
+					() -> scope.provide(1, generators, dep, () -> "second"));
+			Thread.sleep(20); // give second time to wait for first
+			release.countDown();
+			Exception ex = assertThrows(Exception.class,
+					() -> first.get(5, TimeUnit.SECONDS));
+			assertSame(failure, ex.getCause());
+			// second either waited and failed or came too late and retried
+			try {
+				assertEquals("second", second.get(5, TimeUnit.SECONDS));
+			} catch (Exception e) {
+				assertSame(failure, e.getCause());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.EvictingScope;
+import se.jbee.inject.scope.EvictingScope.Bounds;
+import se.jbee.inject.scope.TypeDependentScope;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the eviction and statistics of the {@link EvictingScope} as well as
+ * binding it in place of the default {@link TypeDependentScope}s using {@link
+ * Env#DEPENDENCY_SCOPE_BOUNDS}.
+ */
+class TestFeatureEvictingScope {
+
+	public static class Foo {
+		// just for test
+	}
+
+	private static class TestFeatureEvictingScopeModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.dependencyInstance).construct("a", Foo.class);
+		}
+	}
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void instancesAreCachedUntilEvicted() {
+		EvictingScope scope = new EvictingScope(TypeDependentScope::instanceKey,
+				Bounds.maxEntries(8));
+		assertEquals("a0", provide(scope, "a"));
+		assertEquals("a0", provide(scope, "a"));
+		EvictingScope.Stats stats = scope.stats();
+		assertEquals(1, stats.hits);
+		assertEquals(1, stats.misses);
+		assertEquals(0, stats.evictions);
+		assertEquals(1, stats.size);
+	}
+
+	@Test
+	void leastRecentlyUsedInstancesAreEvictedWhenFull() {
+		EvictingScope scope = new EvictingScope(TypeDependentScope::instanceKey,
+				Bounds.maxEntries(8));
+		String hot = provide(scope, "hot");
+		for (int i = 0; i < 8; i++) {
+			provide(scope, "cold" + i);
+			assertSame(hot, provide(scope, "hot"));
+		}
+		EvictingScope.Stats stats = scope.stats();
+		assertTrue(stats.evictions > 0);
+		assertTrue(stats.size <= 8);
+		assertSame(hot, provide(scope, "hot"));
+		int misses = (int) scope.stats().misses;
+		provide(scope, "cold0");
+		assertEquals(misses + 1, scope.stats().misses);
+	}
+
+	@Test
+	void idleInstancesAreEvicted() throws InterruptedException {
+		EvictingScope scope = new EvictingScope(TypeDependentScope::instanceKey,
+				Bounds.maxEntries(8).withMaxIdle(1, TimeUnit.MILLISECONDS));
+		String a = provide(scope, "a");
+		Thread.sleep(5);
+		assertNotEquals(a, provide(scope, "a"));
+		assertEquals(1, scope.stats().evictions);
+		assertEquals(2, scope.stats().misses);
+	}
+
+	@Test
+	void failedProvisionCanBeRetried() {
+		EvictingScope scope = new EvictingScope(TypeDependentScope::instanceKey,
+				Bounds.maxEntries(8));
+		assertThrows(IllegalStateException.class,
+				() -> scope.provide(1, 1, dependency(String.class), () -> {
+					throw new IllegalStateException();
+				}));
+		assertEquals("b",
+				scope.provide(1, 1, dependency(String.class), () -> "b"));
+	}
+
+	@Test
+	void boundsMustBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> Bounds.maxEntries(0));
+	}
+
+	@Test
+	void boundsInEnvReplaceDefaultDependencyScopes() {
+		Env env = Bootstrap.DEFAULT_ENV.with(Env.DEPENDENCY_SCOPE_BOUNDS,
+				Bounds.class, Bounds.maxEntries(16));
+		Injector context = Bootstrap.injector(env,
+				TestFeatureEvictingScopeModule.class);
+		Foo a = context.resolve("a", Foo.class);
+		assertTrue(context.resolve(Scope.dependencyInstance,
+				Scope.class) instanceof EvictingScope);
+		assertTrue(context.resolve(Scope.dependency,
+				Scope.class) instanceof EvictingScope);
+		EvictingScope scope = (EvictingScope) context.resolve(
+				Scope.dependencyInstance, Scope.class);
+		assertSame(a, context.resolve("a", Foo.class));
+		assertEquals(1, scope.stats().misses);
+	}
+
+	@Test
+	void defaultDependencyScopesAreUnbounded() {
+		Injector context = Bootstrap.injector(
+				TestFeatureEvictingScopeModule.class);
+		assertTrue(context.resolve(Scope.dependencyInstance,
+				Scope.class) instanceof TypeDependentScope);
+	}
+
+	private String provide(Scope scope, String name) {
+		return scope.provide(1, 1, dependency(String.class).named(name),
+				() -> name + calls.getAndIncrement());
+	}
+}
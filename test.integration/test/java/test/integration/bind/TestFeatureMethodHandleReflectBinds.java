@@ -0,0 +1,137 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.config.AccessesBy;
+import se.jbee.inject.config.Get;
+import se.jbee.inject.config.Invoke;
+import se.jbee.inject.config.New;
+import se.jbee.inject.config.ProducesBy;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link New}, {@link Invoke} and {@link Get} strategies based
+ * on {@link java.lang.invoke.MethodHandle}s are bound when {@link
+ * Env#USE_METHOD_HANDLES} is set and that they construct, produce and access
+ * the same way reflection does.
+ */
+class TestFeatureMethodHandleReflectBinds {
+
+	public static class TestFeatureMethodHandleReflectBindsModule
+			extends BinderModule {
+
+		public Integer i = 12;
+		public static final String S = "static";
+
+		@Override
+		protected void declare() {
+			autobind().accessBy(AccessesBy.declaredFields(false)).in(this);
+			autobind().produceBy(ProducesBy.declaredMethods(false)) //
+					.in(Factory.class);
+			construct(Bean.class);
+			construct(Failing.class);
+		}
+	}
+
+	public static class Factory {
+
+		public Long twice(Integer i) {
+			return 2L * i;
+		}
+
+		public static Double half(Integer i) {
+			return i / 2d;
+		}
+	}
+
+	public static class Bean {
+
+		final Long l;
+		final Double d;
+		final String s;
+
+		public Bean(Long l, Double d, String s) {
+			this.l = l;
+			this.d = d;
+			this.s = s;
+		}
+	}
+
+	public static class Failing {
+
+		public Failing() {
+			throw new IllegalStateException("failed on purpose");
+		}
+	}
+
+	private final Injector context = Bootstrap.injector(
+			Bootstrap.DEFAULT_ENV.with(Env.USE_METHOD_HANDLES, boolean.class,
+					true), TestFeatureMethodHandleReflectBindsModule.class);
+
+	@Test
+	void methodHandleStrategiesAreBound() {
+		assertSame(New.METHOD_HANDLE, context.resolve(New.class));
+		assertSame(Invoke.METHOD_HANDLE, context.resolve(Invoke.class));
+		assertSame(Get.METHOD_HANDLE, context.resolve(Get.class));
+	}
+
+	@Test
+	void reflectionIsBoundByDefault() {
+		Injector reflective = Bootstrap.injector(
+				TestFeatureMethodHandleReflectBindsModule.class);
+		assertNotSame(New.METHOD_HANDLE, reflective.resolve(New.class));
+		assertEquals(24L, reflective.resolve(Long.class).longValue());
+	}
+
+	@Test
+	void fieldsAreAccessed() {
+		assertEquals(12, context.resolve(Integer.class).intValue());
+		assertEquals("static", context.resolve(String.class));
+	}
+
+	@Test
+	void methodsAreInvoked() {
+		assertEquals(24L, context.resolve(Long.class).longValue());
+		assertEquals(6d, context.resolve(Double.class), 0.01d);
+	}
+
+	@Test
+	void constructorsAreCalled() {
+		Bean bean = context.resolve(Bean.class);
+		assertEquals(24L, bean.l.longValue());
+		assertEquals(6d, bean.d, 0.01d);
+		assertEquals("static", bean.s);
+	}
+
+	@Test
+	void exceptionsOfTheCalledMemberAreTheCauseOfFailure() {
+		UnresolvableDependency.SupplyFailed ex = assertThrows(
+				UnresolvableDependency.SupplyFailed.class,
+				() -> context.resolve(Failing.class));
+		assertEquals(IllegalStateException.class, ex.getCause().getClass());
+		assertEquals("failed on purpose", ex.getCause().getMessage());
+	}
+
+	@Test
+	void argumentsOfWrongTypeAreNotTheCauseOfFailure() throws Exception {
+		Constructor<Bean> target = Bean.class.getConstructor(Long.class,
+				Double.class, String.class);
+		Object[] args = { "not a long", 1d, "s" };
+		Exception ex = assertThrows(Exception.class,
+				() -> New.METHOD_HANDLE.call(target, args));
+		assertFalse(ex instanceof InvocationTargetException);
+		assertEquals(ClassCastException.class, ex.getClass());
+		ex = assertThrows(Exception.class,
+				() -> New.METHOD_HANDLE.call(Failing.class.getConstructor(),
+						new Object[0]));
+		assertEquals(InvocationTargetException.class, ex.getClass());
+	}
+}
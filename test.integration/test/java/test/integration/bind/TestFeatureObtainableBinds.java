@@ -8,6 +8,7 @@ import se.jbee.inject.binder.BinderModule;
 import se.jbee.inject.bootstrap.Bootstrap;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
@@ -46,11 +47,18 @@ class TestFeatureObtainableBinds {
 			multibind("c", Plugin.class).toFactory(context -> {
 				throw new UnresolvableDependency.SupplyFailed("Error", new IllegalStateException());
 			});
+			bind(named("failing"), Long.class).toFactory(context -> {
+				failingCalls.incrementAndGet();
+				throw new UnresolvableDependency.SupplyFailed("Error",
+						new IllegalStateException());
+			});
 			bind(String.class).to("The name");
 			bind(Manager.class).toConstructor();
 		}
 	}
 
+	static final AtomicInteger failingCalls = new AtomicInteger();
+
 	private final Injector context = Bootstrap.injector(
 			TestObtainableBindsModule.class);
 
@@ -90,4 +98,17 @@ class TestFeatureObtainableBinds {
 						+ "\tavailable are (for same raw type): none",
 				ex.getMessage());
 	}
+
+	@Test
+	void obtainsExceptionWithoutResolvingAgain() {
+		Obtainable<Long> box = context.resolve(named("failing"),
+				obtainableTypeOf(Long.class));
+		int before = failingCalls.get();
+		assertNull(box.obtain());
+		UnresolvableDependency ex = assertThrows(
+				UnresolvableDependency.class, box::orElseThrow);
+		assertSame(ex, assertThrows(UnresolvableDependency.class,
+				box::orElseThrow));
+		assertEquals(before + 1, failingCalls.get());
+	}
 }
@@ -0,0 +1,159 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.OffHeapScope;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the {@link OffHeapScope} which stores instances off-heap and decodes
+ * them when they are resolved.
+ */
+class TestFeatureOffHeapScope {
+
+	public static final class Table implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final int[] values = { 1, 2, 3 };
+	}
+
+	/**
+	 * A view reading its value directly from the off-heap data.
+	 */
+	static final class Chars implements CharSequence {
+
+		final ByteBuffer data;
+
+		Chars(ByteBuffer data) {
+			this.data = data;
+		}
+
+		@Override
+		public int length() {
+			return data.remaining();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) data.get(data.position() + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder str = new StringBuilder();
+			for (int i = 0; i < length(); i++)
+				str.append(charAt(i));
+			return str.toString();
+		}
+	}
+
+	private static final OffHeapScope.Codec CHARS = new OffHeapScope.Codec() {
+
+		@Override
+		public byte[] encode(Object value) {
+			return value.toString().getBytes(StandardCharsets.US_ASCII);
+		}
+
+		@Override
+		public Object decode(ByteBuffer data) {
+			return new Chars(data);
+		}
+	};
+
+	private static final class TestFeatureOffHeapScopeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.offHeap).construct(Table.class);
+		}
+	}
+
+	private final Dependency<Table> dep = dependency(Table.class);
+
+	@Test
+	void instancesAreDecodedAsCopies() {
+		OffHeapScope scope = new OffHeapScope(OffHeapScope.SERIALIZATION, 0);
+		Table a = scope.provide(0, 1, dep, Table::new);
+		Table b = scope.provide(0, 1, dep, Table::new);
+		assertNotSame(a, b);
+		assertArrayEquals(a.values, b.values);
+		assertEquals(1, scope.decodes());
+		assertTrue(scope.offHeapBytes() > 0);
+	}
+
+	@Test
+	void decodedInstancesAreCached() {
+		OffHeapScope scope = new OffHeapScope(OffHeapScope.SERIALIZATION, 1);
+		Table a = scope.provide(0, 2, dep, Table::new);
+		assertSame(a, scope.provide(0, 2, dep, Table::new));
+		assertEquals(0, scope.decodes());
+		Table b = scope.provide(1, 2, dep, Table::new);
+		assertNotSame(a, scope.provide(0, 2, dep, Table::new));
+		assertNotSame(b, scope.provide(1, 2, dep, Table::new));
+		assertEquals(2, scope.decodes());
+	}
+
+	@Test
+	void instancesCanBeDecodedAsViews() {
+		OffHeapScope scope = new OffHeapScope(CHARS, 0);
+		Dependency<CharSequence> chars = dependency(CharSequence.class);
+		scope.provide(0, 1, chars, () -> "off-heap");
+		CharSequence view = scope.provide(0, 1, chars, () -> "other");
+		assertTrue(view instanceof Chars);
+		assertEquals("off-heap", view.toString());
+		assertTrue(((Chars) view).data.isDirect());
+		assertTrue(((Chars) view).data.isReadOnly());
+	}
+
+	@Test
+	void nullIsNotEncoded() {
+		OffHeapScope scope = new OffHeapScope(OffHeapScope.SERIALIZATION, 1);
+		assertNull(scope.provide(0, 1, dep, () -> null));
+		assertNull(scope.provide(0, 1, dep, Table::new));
+		assertEquals(0, scope.offHeapBytes());
+	}
+
+	@Test
+	void instancesThatCannotBeEncodedFail() {
+		OffHeapScope scope = new OffHeapScope(OffHeapScope.SERIALIZATION, 1);
+		Dependency<Object> obj = dependency(Object.class);
+		SupplyFailed ex = assertThrows(SupplyFailed.class,
+				() -> scope.provide(0, 1, obj, Object::new));
+		assertEquals("Failed to encode instance", ex.getMessage());
+		assertEquals("retry", scope.provide(0, 1, obj, () -> "retry"));
+	}
+
+	@Test
+	void offHeapScopeIsBoundByDefault() {
+		Env env = Bootstrap.DEFAULT_ENV.with(Env.OFF_HEAP_CACHE_SIZE,
+				Integer.class, 0);
+		Injector context = Bootstrap.injector(env,
+				TestFeatureOffHeapScopeModule.class);
+		Table a = context.resolve(Table.class);
+		Table b = context.resolve(Table.class);
+		assertNotSame(a, b);
+		assertArrayEquals(a.values, b.values);
+		OffHeapScope scope = (OffHeapScope) context.resolve(Scope.offHeap,
+				Scope.class);
+		assertEquals(1, scope.decodes());
+	}
+}
@@ -0,0 +1,160 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Name;
+import se.jbee.inject.Scope;
+import se.jbee.inject.Scope.Controller;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.PoolScope;
+import se.jbee.inject.scope.PoolScope.Limits;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests borrowing and returning instances of a {@link PoolScope} using its
+ * {@link Controller}.
+ */
+class TestFeaturePoolScope {
+
+	public static class Parser {
+		// just for test
+	}
+
+	public static class Formatter {
+		// just for test
+	}
+
+	private static final class TestFeaturePoolScopeModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			Name parsers = Scope.pool("parsers");
+			per(parsers).construct(Parser.class);
+			per(parsers).bind(Controller.forScope(parsers)).toScopedGenerator(
+					dep -> null); // the scope provides the controller
+			per(Scope.pool("formatters")).construct(Formatter.class);
+		}
+	}
+
+	private static Injector injector(Limits limits) {
+		Env env = Bootstrap.DEFAULT_ENV.with(Scope.pool("parsers").toString(),
+				Limits.class, limits);
+		return Bootstrap.injector(env, TestFeaturePoolScopeModule.class);
+	}
+
+	private final Injector context = injector(Limits.maxSize(2));
+	private final Controller controller = context.resolve(
+			Controller.forScope(Scope.pool("parsers")));
+
+	@Test
+	void borrowedInstancesAreNotShared() {
+		Parser a = context.resolve(Parser.class);
+		Parser b = context.resolve(Parser.class);
+		assertNotSame(a, b);
+		controller.deallocate();
+		Parser c = context.resolve(Parser.class);
+		assertTrue(c == a || c == b);
+		controller.deallocate();
+	}
+
+	@Test
+	void returnedInstanceIsBorrowedAgainBySameThread() {
+		Parser a = context.resolve(Parser.class);
+		controller.deallocate();
+		assertSame(a, context.resolve(Parser.class));
+		controller.deallocate();
+		assertSame(a, context.resolve(Parser.class));
+		controller.deallocate();
+	}
+
+	@Test
+	void exhaustedPoolFails() {
+		context.resolve(Parser.class);
+		context.resolve(Parser.class);
+		assertThrows(UnresolvableDependency.class,
+				() -> context.resolve(Parser.class));
+		controller.deallocate();
+		assertNotNull(context.resolve(Parser.class));
+		controller.deallocate();
+	}
+
+	@Test
+	void instanceKeptByAnotherThreadIsReclaimed() throws Exception {
+		Injector context = injector(Limits.maxSize(1));
+		Controller controller = context.resolve(
+				Controller.forScope(Scope.pool("parsers")));
+		Parser a = context.resolve(Parser.class);
+		controller.deallocate();
+		Parser b = CompletableFuture.supplyAsync(() -> {
+			Parser p = context.resolve(Parser.class);
+			controller.deallocate();
+			return p;
+		}).get(5, TimeUnit.SECONDS);
+		assertSame(a, b);
+	}
+
+	@Test
+	void exhaustedPoolWaitsForReturnedInstance() throws Exception {
+		Injector context = injector(
+				Limits.maxSize(1).awaiting(5, TimeUnit.SECONDS));
+		Controller controller = context.resolve(
+				Controller.forScope(Scope.pool("parsers")));
+		Parser a = context.resolve(Parser.class);
+		CountDownLatch borrowing = new CountDownLatch(1);
+		CompletableFuture<Parser> waiting = CompletableFuture.supplyAsync(
+				() -> {
+					borrowing.countDown();
+					return context.resolve(Parser.class);
+				});
+		borrowing.await();
+		Thread.sleep(20);
+		assertFalse(waiting.isDone());
+		controller.deallocate();
+		assertSame(a, waiting.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void eachPoolUsesItsOwnLimits() {
+		Env env = Bootstrap.DEFAULT_ENV //
+				.with(Scope.pool("parsers").toString(), Limits.class,
+						Limits.maxSize(1)) //
+				.with(Scope.pool("formatters").toString(), Limits.class,
+						Limits.maxSize(3));
+		Injector context = Bootstrap.injector(env,
+				TestFeaturePoolScopeModule.class);
+		context.resolve(Parser.class);
+		assertThrows(UnresolvableDependency.class,
+				() -> context.resolve(Parser.class));
+		Formatter a = context.resolve(Formatter.class);
+		Formatter b = context.resolve(Formatter.class);
+		Formatter c = context.resolve(Formatter.class);
+		assertNotSame(a, b);
+		assertNotSame(b, c);
+		assertThrows(UnresolvableDependency.class,
+				() -> context.resolve(Formatter.class));
+		assertNotSame(context.resolve(Scope.pool("parsers"), Scope.class),
+				context.resolve(Scope.pool("formatters"), Scope.class));
+	}
+
+	@Test
+	void instancesBorrowedByDeadThreadsAreGivenUp() throws Exception {
+		Injector context = injector(Limits.maxSize(1));
+		Thread t = new Thread(() -> context.resolve(Parser.class));
+		t.start();
+		t.join();
+		Controller controller = context.resolve(
+				Controller.forScope(Scope.pool("parsers")));
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(context.resolve(Parser.class));
+			controller.deallocate();
+		}
+	}
+}
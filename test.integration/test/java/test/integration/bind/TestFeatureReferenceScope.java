@@ -0,0 +1,98 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.ReferenceScope;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the {@link ReferenceScope} which allows the garbage collector to
+ * reclaim instances that are created again when needed.
+ */
+class TestFeatureReferenceScope {
+
+	public static class Index {
+
+		static final AtomicInteger created = new AtomicInteger();
+
+		final int id = created.incrementAndGet();
+	}
+
+	private static final class TestFeatureReferenceScopeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.weak).construct(Index.class);
+		}
+	}
+
+	private final Dependency<StringBuilder> dep = dependency(
+			StringBuilder.class);
+
+	@Test
+	void referencedInstancesAreKept() {
+		ReferenceScope scope = ReferenceScope.weak();
+		StringBuilder a = scope.provide(0, 1, dep, StringBuilder::new);
+		System.gc();
+		assertSame(a, scope.provide(0, 1, dep, StringBuilder::new));
+		assertSame(a, scope.lookup(0, dep));
+		assertEquals(0, scope.recreated());
+	}
+
+	@Test
+	void reclaimedInstancesAreRecreated() {
+		ReferenceScope scope = ReferenceScope.weak();
+		int hash = System.identityHashCode(
+				scope.provide(0, 1, dep, StringBuilder::new));
+		awaitReclaimed(scope);
+		assertNull(scope.lookup(0, dep));
+		StringBuilder b = scope.provide(0, 1, dep, StringBuilder::new);
+		assertNotNull(b);
+		assertNotEquals(hash, System.identityHashCode(b));
+		assertEquals(1, scope.reclaimed());
+		assertEquals(1, scope.recreated());
+	}
+
+	@Test
+	void softlyReferencedInstancesAreKeptWithoutMemoryPressure() {
+		ReferenceScope scope = ReferenceScope.soft();
+		int hash = System.identityHashCode(
+				scope.provide(0, 1, dep, StringBuilder::new));
+		System.gc();
+		assertEquals(hash, System.identityHashCode(
+				scope.provide(0, 1, dep, StringBuilder::new)));
+	}
+
+	@Test
+	void weakScopeIsBoundByDefault() {
+		Injector context = Bootstrap.injector(
+				TestFeatureReferenceScopeModule.class);
+		int id = context.resolve(Index.class).id;
+		ReferenceScope scope = (ReferenceScope) context.resolve(Scope.weak,
+				Scope.class);
+		awaitReclaimed(scope);
+		assertNotEquals(id, context.resolve(Index.class).id);
+		assertEquals(1, scope.recreated());
+	}
+
+	private static void awaitReclaimed(ReferenceScope scope) {
+		for (int i = 0; i < 50 && scope.reclaimed() == 0; i++) {
+			System.gc();
+			try {
+				Thread.sleep(10); // reclaimed references are queued async
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		assertEquals(1, scope.reclaimed());
+	}
+}
@@ -0,0 +1,194 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.Scope.Controller;
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.RequestScope;
+import se.jbee.inject.scope.RequestScope.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the {@link RequestScope} which keeps instances from {@link
+ * RequestScope#begin()} to the end of a {@link Request} and closes the {@link
+ * AutoCloseable} ones at the end.
+ */
+class TestFeatureRequestScope {
+
+	public static class Connection implements AutoCloseable {
+
+		final List<String> log;
+
+		public Connection(List<String> log) {
+			this.log = log;
+		}
+
+		@Override
+		public void close() {
+			log.add("connection");
+		}
+	}
+
+	public static class Transaction implements AutoCloseable {
+
+		final Connection connection;
+
+		public Transaction(Connection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void close() {
+			connection.log.add("transaction");
+		}
+	}
+
+	private static final class TestFeatureRequestScopeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind(List.class).to(new ArrayList<>());
+			per(Scope.request).construct(Connection.class);
+			per(Scope.request).construct(Transaction.class);
+		}
+	}
+
+	private final RequestScope scope = new RequestScope();
+	private final Dependency<StringBuilder> dep = dependency(
+			StringBuilder.class);
+
+	@Test
+	void instancesAreKeptUntilTheRequestEnds() {
+		StringBuilder a;
+		try (Request request = scope.begin()) {
+			a = scope.provide(0, 1, dep, StringBuilder::new);
+			assertSame(a, scope.provide(0, 1, dep, StringBuilder::new));
+			assertSame(a, scope.lookup(0, dep));
+			assertSame(request, scope.current());
+		}
+		assertNull(scope.current());
+		try (Request request = scope.begin()) {
+			assertSame(request, scope.current());
+			assertNull(scope.lookup(0, dep));
+			assertNotSame(a, scope.provide(0, 1, dep, StringBuilder::new));
+		}
+	}
+
+	@Test
+	void scopeCannotBeUsedOutsideOfARequest() {
+		SupplyFailed ex = assertThrows(SupplyFailed.class,
+				() -> scope.provide(0, 1, dep, StringBuilder::new));
+		assertEquals("Scope error", ex.getMessage());
+	}
+
+	@Test
+	void requestMustBeEndedBeforeNextBegins() {
+		try (Request request = scope.begin()) {
+			assertThrows(IllegalStateException.class, scope::begin);
+			assertSame(request, scope.current());
+		}
+	}
+
+	@Test
+	void endedRequestsCannotBeUsed() {
+		Request request = scope.begin();
+		Runnable shared = request.share(
+				() -> scope.provide(0, 1, dep, StringBuilder::new));
+		request.close();
+		assertTrue(request.isEnded());
+		assertThrows(SupplyFailed.class, shared::run);
+		assertDoesNotThrow(request::close);
+	}
+
+	@Test
+	void requestsEndedByOtherThreadsAreNoLongerCurrent() throws Exception {
+		Request request = scope.begin();
+		StringBuilder a = scope.provide(0, 1, dep, StringBuilder::new);
+		CompletableFuture.runAsync(request::close).get(5, TimeUnit.SECONDS);
+		assertTrue(request.isEnded());
+		assertNull(scope.current());
+		assertThrows(SupplyFailed.class,
+				() -> scope.provide(0, 1, dep, StringBuilder::new));
+		try (Request next = scope.begin()) {
+			assertSame(next, scope.current());
+			assertNotSame(a, scope.provide(0, 1, dep, StringBuilder::new));
+		}
+	}
+
+	@Test
+	void instancesCreatedWhileEndedByOtherThreadsAreClosed() {
+		List<String> log = new ArrayList<>();
+		Dependency<AutoCloseable> closeable = dependency(AutoCloseable.class);
+		Request request = scope.begin();
+		assertThrows(SupplyFailed.class, () -> scope.provide(0, 1, closeable,
+				() -> {
+					CompletableFuture.runAsync(request::close).join();
+					return () -> log.add("a");
+				}));
+		assertTrue(request.isEnded());
+		assertEquals(asList("a"), log);
+	}
+
+	@Test
+	void sharedRequestsHaveSameInstancesInOtherThreads() throws Exception {
+		try (Request request = scope.begin()) {
+			StringBuilder a = scope.provide(0, 1, dep, StringBuilder::new);
+			StringBuilder[] b = new StringBuilder[1];
+			CompletableFuture.runAsync(request.share(
+					() -> b[0] = scope.provide(0, 1, dep,
+							StringBuilder::new))).get(5, TimeUnit.SECONDS);
+			assertSame(a, b[0]);
+		}
+	}
+
+	@Test
+	void closeableInstancesAreClosedInReverseOrder() {
+		Injector context = Bootstrap.injector(
+				TestFeatureRequestScopeModule.class);
+		@SuppressWarnings("unchecked")
+		List<String> log = context.resolve(List.class);
+		Controller controller = context.resolve(Scope.request,
+				Controller.class);
+		controller.allocate();
+		Transaction tx = context.resolve(Transaction.class);
+		assertSame(tx.connection, context.resolve(Connection.class));
+		assertEquals(0, log.size());
+		controller.deallocate();
+		assertEquals(asList("transaction", "connection"), log);
+		controller.deallocate();
+		assertEquals(2, log.size());
+	}
+
+	@Test
+	void failingToCloseAnInstanceDoesNotStopClosingOthers() {
+		List<String> log = new ArrayList<>();
+		Dependency<AutoCloseable> closeable = dependency(AutoCloseable.class);
+		Request request = scope.begin();
+		scope.provide(0, 3, closeable, () -> () -> log.add("a"));
+		scope.provide(1, 3, closeable, () -> () -> {
+			throw new IllegalArgumentException("b");
+		});
+		scope.provide(2, 3, closeable, () -> () -> {
+			throw new IllegalArgumentException("c");
+		});
+		IllegalStateException ex = assertThrows(IllegalStateException.class,
+				request::close);
+		assertEquals("c", ex.getCause().getMessage());
+		assertEquals("b", ex.getSuppressed()[0].getMessage());
+		assertEquals(asList("a"), log);
+		assertTrue(request.isEnded());
+	}
+}
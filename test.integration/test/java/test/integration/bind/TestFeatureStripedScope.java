@@ -0,0 +1,180 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.StripedScope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Instance.instance;
+import static se.jbee.inject.Name.named;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * Tests the {@link StripedScope} which keeps a number of instances per
+ * binding each used by a share of the {@link Thread}s.
+ */
+class TestFeatureStripedScope {
+
+	public interface Metric {
+
+		void record();
+	}
+
+	public static class Counter implements Metric {
+
+		final LongAdder count = new LongAdder();
+
+		@Override
+		public void record() {
+			count.increment();
+		}
+	}
+
+	private static final class TestFeatureStripedScopeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.striped).construct(Counter.class);
+			per(Scope.injection).bind(Counter[].class).toSupplier(
+					StripedScope.stripesOf(Counter.class));
+		}
+	}
+
+	private static final class TestFeatureStripedScopeNamedModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.striped).bind(named("hits"), Counter.class).toConstructor();
+			per(Scope.striped).bind(named("misses"), Counter.class).toConstructor();
+			per(Scope.injection).bind(named("hits"), Counter[].class).toSupplier(
+					StripedScope.stripesOf(instance(named("hits"), raw(Counter.class))));
+			per(Scope.injection).bind(named("misses"), Counter[].class).toSupplier(
+					StripedScope.stripesOf(instance(named("misses"), raw(Counter.class))));
+		}
+	}
+
+	private static final class TestFeatureStripedScopeInterfaceModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.striped).construct(Counter.class);
+			bind(Metric.class).to(Counter.class);
+			per(Scope.injection).bind(Counter[].class).toSupplier(
+					StripedScope.stripesOf(Counter.class));
+		}
+	}
+
+	private final Dependency<String> dep = dependency(String.class);
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void stripesAreRoundedUpToPowerOfTwo() {
+		assertEquals(1, new StripedScope(1).stripes());
+		assertEquals(2, new StripedScope(2).stripes());
+		assertEquals(4, new StripedScope(3).stripes());
+		assertEquals(8, new StripedScope(8).stripes());
+		assertThrows(IllegalArgumentException.class, () -> new StripedScope(0));
+	}
+
+	@Test
+	void sameThreadAlwaysUsesSameStripe() {
+		Scope scope = new StripedScope(4);
+		String a = scope.provide(0, 1, dep, () -> "a" + calls.getAndIncrement());
+		assertSame(a, scope.provide(0, 1, dep, () -> "b"));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void threadsUseDifferentStripes() throws Exception {
+		Scope scope = new StripedScope(2);
+		Set<String> instances = ConcurrentHashMap.newKeySet();
+		Runnable task = () -> instances.add(scope.provide(0, 1, dep,
+				() -> "a" + calls.getAndIncrement()));
+		// the stripe is derived from the id, pick threads for both stripes
+		Thread first = new Thread(task);
+		Thread second = new Thread(task);
+		while ((second.getId() & 1) == (first.getId() & 1))
+			second = new Thread(task);
+		for (Thread t : new Thread[] { first, second }) {
+			t.start();
+			t.join();
+		}
+		assertEquals(2, instances.size());
+	}
+
+	@Test
+	void stripesCanBeInjectedAsArrayForAggregation() throws Exception {
+		Env env = Bootstrap.DEFAULT_ENV.with(Env.STRIPES, Integer.class, 4);
+		Injector context = Bootstrap.injector(env,
+				TestFeatureStripedScopeModule.class);
+		assertEquals(0, context.resolve(Counter[].class).length);
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> done = new ArrayList<>();
+			for (int i = 0; i < threads; i++)
+				done.add(pool.submit(() -> {
+					for (int j = 0; j < 100; j++)
+						context.resolve(Counter.class).count.increment();
+				}));
+			for (Future<?> f : done)
+				f.get(5, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdown();
+		}
+		Counter[] stripes = context.resolve(Counter[].class);
+		assertTrue(stripes.length > 0 && stripes.length <= 4);
+		long sum = 0;
+		for (Counter c : stripes)
+			sum += c.count.sum();
+		assertEquals(threads * 100, sum);
+	}
+
+	@Test
+	void stripesOfNamedBindingsAreAggregatedSeparately() {
+		Injector context = Bootstrap.injector(
+				TestFeatureStripedScopeNamedModule.class);
+		context.resolve("hits", Counter.class).record();
+		context.resolve("hits", Counter.class).record();
+		context.resolve("misses", Counter.class).record();
+		assertEquals(2, sum(context.resolve("hits", Counter[].class)));
+		assertEquals(1, sum(context.resolve("misses", Counter[].class)));
+	}
+
+	@Test
+	void stripesResolvedThroughAnInterfaceAreAggregated() {
+		Injector context = Bootstrap.injector(
+				TestFeatureStripedScopeInterfaceModule.class);
+		Metric metric = context.resolve(Metric.class);
+		metric.record();
+		assertSame(metric, context.resolve(Counter.class));
+		assertEquals(1, sum(context.resolve(Counter[].class)));
+	}
+
+	private static long sum(Counter[] stripes) {
+		long sum = 0;
+		for (Counter c : stripes)
+			sum += c.count.sum();
+		return sum;
+	}
+}
@@ -0,0 +1,124 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Env;
+import se.jbee.inject.InconsistentDeclaration;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.TenantScope;
+import se.jbee.inject.scope.TenantScope.Tenancy;
+
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the {@link TenantScope} which keeps instances per tenant where the
+ * tenant is identified by a key from the {@link Tenancy}.
+ */
+class TestFeatureTenantScope {
+
+	public static class Settings {}
+
+	private static final class TestFeatureTenantScopeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.tenant).construct(Settings.class);
+		}
+	}
+
+	private final ThreadLocal<String> currentTenant = new ThreadLocal<>();
+	private final Dependency<StringBuilder> dep = dependency(
+			StringBuilder.class);
+
+	@Test
+	void instancesAreKeptPerTenant() {
+		TenantScope scope = new TenantScope(
+				Tenancy.keyedBy(currentTenant::get));
+		StringBuilder a = provide(scope, "a", 0);
+		StringBuilder b = provide(scope, "b", 0);
+		assertNotSame(a, b);
+		assertSame(a, provide(scope, "a", 0));
+		assertSame(b, provide(scope, "b", 0));
+		currentTenant.set("b");
+		assertSame(b, scope.lookup(0, dep));
+		currentTenant.remove();
+		provide(scope, "a", 1);
+		assertEquals(2, scope.instanceCounts().get("a"));
+		assertEquals(1, scope.instanceCounts().get("b"));
+	}
+
+	@Test
+	void scopeCannotBeUsedWithoutTenant() {
+		TenantScope scope = new TenantScope(
+				Tenancy.keyedBy(currentTenant::get));
+		SupplyFailed ex = assertThrows(SupplyFailed.class,
+				() -> scope.provide(0, 1, dep, StringBuilder::new));
+		assertEquals("Scope error", ex.getMessage());
+	}
+
+	@Test
+	void evictedTenantsForgetAllInstances() {
+		TenantScope scope = new TenantScope(
+				Tenancy.keyedBy(currentTenant::get));
+		StringBuilder a = provide(scope, "a", 0);
+		provide(scope, "b", 0);
+		assertTrue(scope.evict("a"));
+		assertFalse(scope.evict("a"));
+		assertEquals(new HashSet<>(asList("b")), scope.tenants());
+		assertNotSame(a, provide(scope, "a", 0));
+		assertEquals(1, scope.evictions());
+	}
+
+	@Test
+	void leastRecentlyUsedTenantsAreEvicted() {
+		TenantScope scope = new TenantScope(
+				Tenancy.keyedBy(currentTenant::get).withMaxResident(2));
+		StringBuilder a = provide(scope, "a", 0);
+		provide(scope, "b", 0);
+		provide(scope, "a", 0);
+		provide(scope, "c", 0);
+		assertEquals(new HashSet<>(asList("a", "c")), scope.tenants());
+		assertSame(a, provide(scope, "a", 0));
+		assertEquals(1, scope.evictions());
+	}
+
+	@Test
+	void tenantScopeMustBeConfigured() {
+		Injector context = Bootstrap.injector(TestFeatureTenantScopeModule.class);
+		assertThrows(InconsistentDeclaration.class,
+				() -> context.resolve(Settings.class));
+	}
+
+	@Test
+	void tenantScopeIsBoundByDefault() {
+		Env env = Bootstrap.DEFAULT_ENV.with(Env.TENANCY, Tenancy.class,
+				Tenancy.keyedBy(currentTenant::get));
+		Injector context = Bootstrap.injector(env,
+				TestFeatureTenantScopeModule.class);
+		currentTenant.set("a");
+		Settings a = context.resolve(Settings.class);
+		assertSame(a, context.resolve(Settings.class));
+		currentTenant.set("b");
+		assertNotSame(a, context.resolve(Settings.class));
+		currentTenant.remove();
+	}
+
+	private StringBuilder provide(TenantScope scope, String tenant,
+			int serialID) {
+		currentTenant.set(tenant);
+		try {
+			return scope.provide(serialID, 2, dep, StringBuilder::new);
+		} finally {
+			currentTenant.remove();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.scope.ThreadScope;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the {@link ThreadScope} which keeps the instances of each {@link
+ * Thread} in a dense array of the slots actually used.
+ */
+class TestFeatureThreadScope {
+
+	private final int resources = 1000;
+	private final ThreadScope scope = new ThreadScope();
+	private final Dependency<String> dep = dependency(String.class);
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void instancesAreKeptPerThread() throws Exception {
+		String a = provide(999);
+		assertSame(a, provide(999));
+		assertSame(a, scope.lookup(999, dep));
+		String b = CompletableFuture.supplyAsync(() -> provide(999)).get(5,
+				TimeUnit.SECONDS);
+		assertNotEquals(a, b);
+		assertSame(a, provide(999));
+	}
+
+	@Test
+	void slotsAreAddedAsResourcesAreUsed() {
+		String[] used = new String[10];
+		for (int i = 0; i < used.length; i++)
+			used[i] = provide(i * 100);
+		for (int i = 0; i < used.length; i++)
+			assertSame(used[i], provide(i * 100));
+		assertEquals(used.length, calls.get());
+	}
+
+	@Test
+	void unusedSlotsAreNotLookedUp() {
+		assertNull(scope.lookup(1, dep));
+		provide(2);
+		assertNull(scope.lookup(1, dep));
+		assertNotNull(scope.lookup(2, dep));
+	}
+
+	@Test
+	void tasksRunWithTheirOwnInstances() {
+		String outer = provide(1);
+		String[] inner = new String[2];
+		scope.run(() -> {
+			inner[0] = provide(1);
+			inner[1] = provide(1);
+		});
+		assertNotEquals(outer, inner[0]);
+		assertSame(inner[0], inner[1]);
+		assertSame(outer, provide(1));
+	}
+
+	@Test
+	void taskInstancesAreDiscardedAfterTheTask() throws Exception {
+		CompletableFuture.runAsync(() -> scope.run(() -> provide(1))).get(5,
+				TimeUnit.SECONDS);
+		String[] res = new String[1];
+		scope.run(() -> res[0] = provide(1));
+		assertEquals("a1", res[0]);
+	}
+
+	private String provide(int serialID) {
+		return scope.provide(serialID, resources, dep,
+				() -> "a" + calls.getAndIncrement());
+	}
+}
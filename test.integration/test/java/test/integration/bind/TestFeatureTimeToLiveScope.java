@@ -0,0 +1,197 @@
+package test.integration.bind;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Env;
+import se.jbee.inject.InconsistentDeclaration;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.scope.TimeToLiveScope;
+import se.jbee.inject.scope.TimeToLiveScope.Expiry;
+import se.jbee.lang.Attempt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests the expiry and refresh of instances in the {@link TimeToLiveScope}
+ * and its configuration using {@link Env#TTL_EXPIRY}.
+ */
+class TestFeatureTimeToLiveScope {
+
+	public static class Token {
+		// just for test
+	}
+
+	public static class Session {
+		// just for test
+	}
+
+	private static class TestFeatureTimeToLiveScopeModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.ttl("tokens")).construct(Token.class);
+			per(Scope.ttl("sessions")).construct(Session.class);
+		}
+	}
+
+	private final AtomicInteger calls = new AtomicInteger();
+	private final Dependency<String> dep = dependency(String.class);
+	private final List<Runnable> refreshes = new ArrayList<>();
+	/**
+	 * The clock of the scopes in nanoseconds, advanced by the tests
+	 */
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void instancesAreKeptUntilTheyExpire() {
+		Scope scope = new TimeToLiveScope(Expiry.after(20, MILLISECONDS),
+				Runnable::run, now::get);
+		assertEquals("a0", provide(scope));
+		advance(19);
+		assertEquals("a0", provide(scope));
+		advance(1);
+		assertEquals("a1", provide(scope));
+		assertEquals("a1", provide(scope));
+	}
+
+	@Test
+	void instancesAreRefreshedAheadWithoutBlocking() {
+		Scope scope = new TimeToLiveScope(Expiry.after(200, MILLISECONDS) //
+				.refreshAhead(190, MILLISECONDS), refreshes::add, now::get);
+		assertEquals("a0", provide(scope));
+		advance(9);
+		assertEquals("a0", provide(scope));
+		assertEquals(0, refreshes.size());
+		advance(1);
+		assertEquals("a0", provide(scope));
+		assertEquals(1, refreshes.size());
+		assertEquals("a0", provide(scope));
+		assertEquals(1, refreshes.size(), "only one refresh at a time");
+		refreshes.get(0).run();
+		assertEquals("a1", provide(scope));
+	}
+
+	@Test
+	void failedRefreshFallsBackToCurrentInstance() {
+		Scope scope = new TimeToLiveScope(Expiry.after(10, MILLISECONDS) //
+				.retryAfter(1, TimeUnit.HOURS), Runnable::run, now::get);
+		assertEquals("a0", provide(scope));
+		advance(10);
+		assertEquals("a0", scope.provide(0, 1, dep, () -> {
+			throw new IllegalStateException("refresh failed");
+		}));
+		assertEquals("a0", provide(scope), "retry is not due yet");
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void refreshFailingWithErrorIsRetried() {
+		Scope scope = new TimeToLiveScope(Expiry.after(10, MILLISECONDS) //
+				.retryAfter(1, MILLISECONDS), Runnable::run, now::get);
+		assertEquals("a0", provide(scope));
+		advance(10);
+		assertThrows(LinkageError.class, () -> scope.provide(0, 1, dep, () -> {
+			throw new LinkageError("refresh failed");
+		}));
+		assertEquals("a0", provide(scope), "retry is not due yet");
+		advance(1);
+		assertEquals("a1", provide(scope));
+	}
+
+	@Test
+	void refreshFailingWithCheckedExceptionIsRetried() {
+		Scope scope = new TimeToLiveScope(Expiry.after(10, MILLISECONDS) //
+				.retryAfter(1, MILLISECONDS), Runnable::run, now::get);
+		assertEquals("a0", provide(scope));
+		advance(10);
+		assertEquals("a0", scope.provide(0, 1, dep, () -> {
+			throw Attempt.rethrow(new IOException("refresh failed"));
+		}));
+		advance(1);
+		assertEquals("a1", provide(scope));
+	}
+
+	@Test
+	void failedCreationCanBeRetried() {
+		Scope scope = new TimeToLiveScope(Expiry.after(1, TimeUnit.MINUTES),
+				Runnable::run, now::get);
+		assertThrows(IllegalStateException.class,
+				() -> scope.provide(0, 1, dep, () -> {
+					throw new IllegalStateException();
+				}));
+		assertEquals("a0", provide(scope));
+	}
+
+	@Test
+	void refreshAheadMustBeLessThanTimeToLive() {
+		Expiry expiry = Expiry.after(1, MILLISECONDS);
+		assertThrows(IllegalArgumentException.class,
+				() -> expiry.refreshAhead(1, MILLISECONDS));
+	}
+
+	@Test
+	void expiryIsConfiguredPerScopeInEnv() {
+		Env env = Bootstrap.DEFAULT_ENV //
+				.with(Scope.ttl("tokens").toString(), Expiry.class,
+						Expiry.after(20, MILLISECONDS)) //
+				.with(Env.TTL_EXPIRY, Expiry.class,
+						Expiry.after(1, TimeUnit.HOURS)) //
+				.with(Env.TTL_CLOCK, LongSupplier.class, now::get);
+		Injector context = Bootstrap.injector(env,
+				TestFeatureTimeToLiveScopeModule.class);
+		Token token = context.resolve(Token.class);
+		assertSame(token, context.resolve(Token.class));
+		advance(20);
+		Token refreshed = context.resolve(Token.class);
+		assertNotSame(token, refreshed);
+		assertSame(refreshed, context.resolve(Token.class));
+	}
+
+	@Test
+	void eachScopeUsesItsOwnExpiry() {
+		Env env = Bootstrap.DEFAULT_ENV //
+				.with(Scope.ttl("tokens").toString(), Expiry.class,
+						Expiry.after(20, MILLISECONDS)) //
+				.with(Scope.ttl("sessions").toString(), Expiry.class,
+						Expiry.after(1, TimeUnit.HOURS)) //
+				.with(Env.TTL_CLOCK, LongSupplier.class, now::get);
+		Injector context = Bootstrap.injector(env,
+				TestFeatureTimeToLiveScopeModule.class);
+		Session session = context.resolve(Session.class);
+		Token token = context.resolve(Token.class);
+		assertNotSame(context.resolve(Scope.ttl("tokens"), Scope.class),
+				context.resolve(Scope.ttl("sessions"), Scope.class));
+		advance(20);
+		assertNotSame(token, context.resolve(Token.class));
+		assertSame(session, context.resolve(Session.class));
+	}
+
+	@Test
+	void expiryMustBeConfiguredInEnv() {
+		Injector context = Bootstrap.injector(
+				TestFeatureTimeToLiveScopeModule.class);
+		assertThrows(InconsistentDeclaration.class,
+				() -> context.resolve(Token.class));
+	}
+
+	private void advance(long millis) {
+		now.addAndGet(MILLISECONDS.toNanos(millis));
+	}
+
+	private String provide(Scope scope) {
+		return scope.provide(0, 1, dep, () -> "a" + calls.getAndIncrement());
+	}
+}
@@ -1,12 +1,22 @@
 package test.integration.bind;
 
 import org.junit.jupiter.api.Test;
+import se.jbee.inject.Dependency;
 import se.jbee.inject.Provider;
 import se.jbee.inject.Scope;
 import se.jbee.inject.scope.TypeDependentScope;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Name.named;
+import static se.jbee.lang.Type.raw;
 
 /**
  * A basic test verifying the {@link TypeDependentScope} implementation behaves
@@ -35,4 +45,73 @@ class TestFeatureTypeDependentScopes {
 		assertSame(scope.provide(2, 2, dependency(B.class), null), b); // the null Provider shouldn't be called now
 	}
 
+	@Test
+	@SuppressWarnings("rawtypes")
+	void dependencyTypeScopeDistinguishesTypeParameters() {
+		Scope scope = TypeDependentScope.perTypeSignature();
+		Dependency<List> listOfA = dependency(raw(List.class).parameterized(A.class));
+		Dependency<List> listOfB = dependency(raw(List.class).parameterized(B.class));
+		Object a = scope.provide(1, 2, listOfA, ArrayList::new);
+		assertSame(a, scope.provide(1, 2,
+				dependency(raw(List.class).parameterized(A.class)), null));
+		assertNotSame(a, scope.provide(1, 2, listOfB, ArrayList::new));
+	}
+
+	@Test
+	void dependencyInstanceScopeDistinguishesNames() {
+		Scope scope = TypeDependentScope.perInstanceSignature();
+		Object a = scope.provide(1, 2, dependency(A.class).named("a"), A::new);
+		assertSame(a, scope.provide(1, 2,
+				dependency(A.class).named(named("a")), null));
+		assertNotSame(a, scope.provide(1, 2, dependency(A.class).named("b"),
+				A::new));
+		assertNotSame(a, scope.provide(1, 2, dependency(A.class), A::new));
+	}
+
+	@Test
+	void dependencyScopeDistinguishesTargets() {
+		Scope scope = TypeDependentScope.perHierarchicalInstanceSignature();
+		Object a = scope.provide(1, 2, dependency(A.class).injectingInto(B.class),
+				A::new);
+		assertSame(a, scope.provide(1, 2,
+				dependency(A.class).injectingInto(B.class), null));
+		assertNotSame(a, scope.provide(1, 2, dependency(A.class), A::new));
+		assertNotSame(a, scope.provide(1, 2,
+				dependency(A.class).injectingInto(A.class), A::new));
+		assertNotSame(a, scope.provide(1, 2,
+				dependency(B.class).injectingInto(B.class), B::new));
+	}
+
+	@Test
+	void targetInstanceScopeIgnoresTheDependency() {
+		Scope scope = TypeDependentScope.perTargetInstanceSignature();
+		Object a = scope.provide(1, 2, dependency(A.class).injectingInto(B.class),
+				A::new);
+		assertSame(a, scope.provide(1, 2,
+				dependency(B.class).injectingInto(B.class), null));
+		assertNotSame(a, scope.provide(1, 2,
+				dependency(A.class).injectingInto(A.class), A::new));
+	}
+
+	@Test
+	void nullIsKeptInScope() {
+		Scope scope = TypeDependentScope.perTypeSignature();
+		assertNull(scope.provide(1, 2, dependency(A.class), () -> null));
+		assertNull(scope.provide(1, 2, dependency(A.class), null));
+	}
+
+	@Test
+	void otherInstancesCanBeProvidedWhileProviding() {
+		Scope scope = TypeDependentScope.perTypeSignature();
+		AtomicInteger calls = new AtomicInteger();
+		B b = new B();
+		Object a = scope.provide(1, 2, dependency(A.class), () -> {
+			calls.incrementAndGet();
+			assertSame(b, scope.provide(2, 2, dependency(B.class), () -> b));
+			return new A();
+		});
+		assertSame(a, scope.provide(1, 2, dependency(A.class), null));
+		assertSame(b, scope.provide(2, 2, dependency(B.class), null));
+		assertEquals(1, calls.get());
+	}
 }
@@ -1,14 +1,22 @@
 package test.integration.bind;
 
 import org.junit.jupiter.api.Test;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
 import se.jbee.inject.Provider;
 import se.jbee.inject.Scope;
 import se.jbee.inject.Scope.Controller;
 import se.jbee.inject.UnresolvableDependency;
 import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
 import se.jbee.inject.scope.WorkerScope;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,8 +27,19 @@ import static se.jbee.inject.Dependency.dependency;
  */
 class TestFeatureWorkerScope {
 
+	public static class Item {}
+
+	private static final class TestFeatureWorkerScopeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per(Scope.worker).construct(Item.class);
+		}
+	}
+
 	private final int generators = 3;
-	private final Scope scope = new WorkerScope();
+	private final WorkerScope scope = new WorkerScope();
 
 	@Test
 	void scopeYieldsControllerWithoutUsingTheProvider() {
@@ -99,6 +118,77 @@ class TestFeatureWorkerScope {
 		assertEquals("outer", asyncResult.get());
 	}
 
+	@Test
+	void contextsOfTerminatedThreadsAreReclaimed() throws Exception {
+		Thread t = new Thread(() -> getController().allocate());
+		t.start();
+		t.join();
+		assertEquals(1, scope.allocated());
+		for (int i = 0; i < 64; i++)
+			scope.inContext(() -> {}).run();
+		assertEquals(0, scope.allocated());
+	}
+
+	@Test
+	void tasksRunInContextOfTheSubmittingThread() throws Exception {
+		Scope.Controller controller = getController();
+		controller.allocate();
+		yieldProvided(1, "outer");
+		ExecutorService executor = scope.propagating(
+				Executors.newSingleThreadExecutor());
+		try {
+			assertEquals("outer", executor.submit(
+					() -> yieldExisting(1, String.class)).get(5,
+							TimeUnit.SECONDS));
+			awaitTermination(executor);
+			assertEquals(1, scope.allocated());
+		} finally {
+			controller.deallocate();
+		}
+	}
+
+	@Test
+	void tasksOfThreadsWithoutContextRunInFreshContext() throws Exception {
+		ExecutorService executor = scope.propagating(
+				Executors.newSingleThreadExecutor());
+		assertEquals("inner", executor.submit(
+				() -> yieldProvided(1, "inner")).get(5, TimeUnit.SECONDS));
+		awaitTermination(executor);
+		assertEquals(0, scope.allocated());
+	}
+
+	@Test
+	void propagatingExecutorIsBoundWhenConfigured() throws Exception {
+		ExecutorService workers = Executors.newSingleThreadExecutor();
+		Env env = Bootstrap.DEFAULT_ENV.with(Env.WORKER_EXECUTOR,
+				ExecutorService.class, workers);
+		Injector context = Bootstrap.injector(env,
+				TestFeatureWorkerScopeModule.class);
+		Controller controller = context.resolve(Scope.worker,
+				Controller.class);
+		assertNotNull(controller);
+		ExecutorService executor = context.resolve(Scope.worker,
+				ExecutorService.class);
+		assertNotSame(workers, executor);
+		assertSame(executor, context.resolve(Scope.worker, Executor.class));
+		controller.allocate();
+		try {
+			Item item = context.resolve(Item.class);
+			assertSame(item, executor.submit(
+					() -> context.resolve(Item.class)).get(5, TimeUnit.SECONDS));
+		} finally {
+			controller.deallocate();
+			awaitTermination(executor);
+		}
+		assertTrue(workers.isShutdown());
+	}
+
+	private static void awaitTermination(ExecutorService executor)
+			throws InterruptedException {
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
 	private Scope.Controller getController() {
 		return yieldExisting(0, Scope.Controller.class);
 	}
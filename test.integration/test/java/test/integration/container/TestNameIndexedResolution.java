@@ -0,0 +1,54 @@
+package test.integration.container;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Name;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that resolution of types with many named {@link
+ * se.jbee.inject.Resource}s (which are indexed by {@link Name}) still prefers
+ * exact names over pattern names over {@link Name#ANY} in the same way as the
+ * linear search for types with few {@link se.jbee.inject.Resource}s.
+ */
+class TestNameIndexedResolution {
+
+	private static class TestNameIndexedResolutionModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			for (int i = 0; i < 20; i++)
+				bind("value" + i, String.class).to("exact" + i);
+			bind("value1*", String.class).to("pattern");
+			bind(Name.ANY, String.class).to("any");
+			bind(String.class).to("default");
+		}
+	}
+
+	private final Injector context = Bootstrap.injector(
+			TestNameIndexedResolutionModule.class);
+
+	@Test
+	void exactNameIsPreferred() {
+		for (int i = 0; i < 20; i++)
+			assertEquals("exact" + i, context.resolve("value" + i, String.class));
+	}
+
+	@Test
+	void defaultNameIsPreferredForDefault() {
+		assertEquals("default", context.resolve(String.class));
+	}
+
+	@Test
+	void patternIsUsedWhenNoExactNameMatches() {
+		assertEquals("pattern", context.resolve("value100", String.class));
+	}
+
+	@Test
+	void anyIsUsedWhenNeitherExactNorPatternMatches() {
+		assertEquals("any", context.resolve("other", String.class));
+	}
+}
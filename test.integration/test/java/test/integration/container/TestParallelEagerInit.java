@@ -0,0 +1,197 @@
+package test.integration.container;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Scope;
+import se.jbee.inject.ScopeLifeCycle;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.UnresolvableDependency.DependencyCycle;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the concurrent initialisation of eager {@link se.jbee.inject.Resource}s
+ * that is enabled by setting the {@link Env#EAGER_INIT_EXECUTOR}.
+ */
+class TestParallelEagerInit {
+
+	static final AtomicInteger A_CREATED = new AtomicInteger();
+	static final Set<Thread> CREATED_BY = ConcurrentHashMap.newKeySet();
+
+	public static class A {
+
+		final B b;
+		final C c;
+
+		public A(B b, C c) {
+			this.b = b;
+			this.c = c;
+			A_CREATED.incrementAndGet();
+			CREATED_BY.add(Thread.currentThread());
+		}
+	}
+
+	public static class B {
+
+		final C c;
+
+		public B(C c) {
+			this.c = c;
+		}
+	}
+
+	public static class C {
+
+	}
+
+	public static class Failing {
+
+		public Failing() {
+			throw new IllegalStateException("failed on purpose");
+		}
+	}
+
+	public static class X {
+
+		final Y y;
+
+		public X(Y y) {
+			this.y = y;
+		}
+	}
+
+	public static class Y {
+
+		final X x;
+
+		public Y(X x) {
+			this.x = x;
+		}
+	}
+
+	/**
+	 * Makes sure the {@link X} and {@link Y} are each claimed by a different
+	 * thread before they resolve each other.
+	 */
+	static final CyclicBarrier BOTH_CLAIMED = new CyclicBarrier(2);
+
+	private static void bothClaimed() {
+		try {
+			BOTH_CLAIMED.await(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class TestParallelEagerInitModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bindLifeCycle(ScopeLifeCycle.singleton.derive(
+					Scope.application).eager());
+			construct(A.class);
+			construct(B.class);
+			construct(C.class);
+		}
+	}
+
+	private static class TestParallelEagerInitFailingModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bindLifeCycle(ScopeLifeCycle.singleton.derive(
+					Scope.application).eager());
+			construct(C.class);
+			construct(Failing.class);
+		}
+	}
+
+	private static class TestParallelEagerInitCycleModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bindLifeCycle(ScopeLifeCycle.singleton.derive(
+					Scope.application).eager());
+			bind(X.class).toSupplier((dep, context) -> {
+				bothClaimed();
+				return new X(context.resolve(Y.class));
+			});
+			bind(Y.class).toSupplier((dep, context) -> {
+				bothClaimed();
+				return new Y(context.resolve(X.class));
+			});
+		}
+	}
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	private Env env() {
+		return Bootstrap.DEFAULT_ENV.with(Env.EAGER_INIT_EXECUTOR,
+				Executor.class, pool);
+	}
+
+	@Test
+	void eagerResourcesAreInitialisedOnceByTheExecutor() {
+		Injector context = Bootstrap.injector(env(),
+				TestParallelEagerInitModule.class);
+		A a = context.resolve(A.class);
+		assertSame(context.resolve(B.class), a.b);
+		assertSame(context.resolve(C.class), a.c);
+		assertSame(a.c, a.b.c);
+		assertEquals(1, A_CREATED.get());
+		assertFalse(CREATED_BY.contains(Thread.currentThread()));
+	}
+
+	@Test
+	void eagerInitFailureIsThrownFromBootstrapping() {
+		UnresolvableDependency ex = assertThrows(UnresolvableDependency.class,
+				() -> Bootstrap.injector(env(),
+						TestParallelEagerInitFailingModule.class));
+		assertEquals("failed on purpose", rootCause(ex).getMessage());
+	}
+
+	@Test
+	void eagerInitCycleBetweenThreadsIsDetected() {
+		UnresolvableDependency ex = assertTimeoutPreemptively(
+				Duration.ofSeconds(10),
+				() -> assertThrows(UnresolvableDependency.class,
+						() -> Bootstrap.injector(env(),
+								TestParallelEagerInitCycleModule.class)));
+		assertTrue(isCausedBy(DependencyCycle.class, ex));
+	}
+
+	private static boolean isCausedBy(Class<? extends Throwable> type,
+			Throwable ex) {
+		for (Throwable e = ex; e != null; e = e.getCause())
+			if (type.isInstance(e))
+				return true;
+		return false;
+	}
+
+	private static Throwable rootCause(Throwable ex) {
+		while (ex.getCause() != null)
+			ex = ex.getCause();
+		return ex;
+	}
+}
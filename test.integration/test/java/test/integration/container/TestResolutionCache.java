@@ -0,0 +1,92 @@
+package test.integration.container;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.ResolutionCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+
+/**
+ * Tests that the {@link ResolutionCache} of the {@link
+ * se.jbee.inject.container.Container} serves repeated resolution of the same
+ * {@link se.jbee.inject.Dependency} and still distinguishes targeted
+ * resolution.
+ */
+class TestResolutionCache {
+
+	static final B B_IN_A = new B();
+	static final B B_EVERYWHERE_ELSE = new B();
+
+	private static class TestResolutionCacheModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			construct(A.class);
+			construct(C.class);
+			bind(B.class).to(B_EVERYWHERE_ELSE);
+			injectingInto(A.class).bind(B.class).to(B_IN_A);
+			bind("answer", Integer.class).to(42);
+		}
+	}
+
+	public static class A {
+
+		final B b;
+
+		public A(B b) {
+			this.b = b;
+		}
+	}
+
+	public static class B {
+
+	}
+
+	public static class C {
+
+		final B b;
+
+		public C(B b) {
+			this.b = b;
+		}
+	}
+
+	private final Injector context = Bootstrap.injector(
+			TestResolutionCacheModule.class);
+
+	@Test
+	void cacheCanBeResolved() {
+		assertNotNull(context.resolve(ResolutionCache.class));
+	}
+
+	@Test
+	void repeatedResolutionIsServedFromCache() {
+		ResolutionCache cache = context.resolve(ResolutionCache.class);
+		assertEquals(42, context.resolve("answer", Integer.class).intValue());
+		long hits = cache.hits();
+		for (int i = 0; i < 10; i++)
+			assertEquals(42, context.resolve("answer", Integer.class).intValue());
+		assertTrue(cache.hits() >= hits + 10);
+	}
+
+	@Test
+	void targetedResolutionIsNotMixedUpByCache() {
+		for (int i = 0; i < 3; i++) {
+			assertSame(B_IN_A, context.resolve(A.class).b);
+			assertSame(B_EVERYWHERE_ELSE, context.resolve(C.class).b);
+			assertSame(B_EVERYWHERE_ELSE, context.resolve(B.class));
+			assertSame(B_IN_A, context.resolve(
+					dependency(B.class).injectingInto(A.class)));
+		}
+	}
+
+	@Test
+	void unresolvableDependencyStaysUnresolvable() {
+		assertThrows(UnresolvableDependency.class, () -> context.resolve("question", Integer.class));
+		assertThrows(UnresolvableDependency.class, () -> context.resolve("question", Integer.class));
+	}
+}
@@ -0,0 +1,80 @@
+package test.integration.container;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Env;
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * Tests {@link Injector#tryResolve(se.jbee.inject.Dependency)} which is the
+ * non throwing variant of {@link Injector#resolve(se.jbee.inject.Dependency)}.
+ */
+class TestTryResolve {
+
+	public static class Unresolvable {
+
+		public Unresolvable(Float missing) {
+			// needs a Float which is not bound
+		}
+	}
+
+	private static class TestTryResolveModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind(String.class).to("bound");
+			bind("nothing", Integer.class).toSupplier((dep, context) -> null);
+			bind(Number.class).to(42);
+			construct(Unresolvable.class);
+			bind("answer", int.class).to(42);
+		}
+	}
+
+	private final Injector context = Bootstrap.injector(
+			TestTryResolveModule.class);
+
+	@Test
+	void boundValueIsPresent() {
+		assertEquals(Optional.of("bound"), context.tryResolve(String.class));
+		assertEquals(Optional.of(42), context.tryResolve(Number.class));
+	}
+
+	@Test
+	void unboundValueIsEmpty() {
+		assertEquals(Optional.empty(), context.tryResolve(Long.class));
+		assertThrows(UnresolvableDependency.class,
+				() -> context.resolve(Long.class));
+	}
+
+	@Test
+	void unboundResourceIsEmpty() {
+		assertEquals(Optional.empty(), context.tryResolve(
+				raw(se.jbee.inject.Resource.class).parameterized(Long.class)));
+	}
+
+	@Test
+	void nullValueIsEmpty() {
+		assertEquals(Optional.empty(), context.tryResolve(
+				dependency(Integer.class).named("nothing")));
+	}
+
+	@Test
+	void unresolvableNestedDependencyIsEmpty() {
+		assertEquals(Optional.empty(), context.tryResolve(Unresolvable.class));
+	}
+
+	@Test
+	void envPropertyDefaultIsUsedForUnboundProperties() {
+		Env env = context.asEnv();
+		assertEquals(42, env.property("answer", int.class, 13).intValue());
+		assertEquals(13, env.property("question", int.class, 13).intValue());
+	}
+}
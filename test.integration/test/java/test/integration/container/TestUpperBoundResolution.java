@@ -0,0 +1,69 @@
+package test.integration.container;
+
+import org.junit.jupiter.api.Test;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Resource;
+import se.jbee.inject.binder.BinderModule;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static se.jbee.inject.Resource.resourcesTypeOf;
+import static se.jbee.lang.Type.raw;
+
+/**
+ * Tests that resolution of arrays with an upper bound element type only
+ * considers the {@link Resource}s of sub-types of the upper bound.
+ */
+class TestUpperBoundResolution {
+
+	private static class TestUpperBoundResolutionModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind(Integer.class).to(1);
+			bind(Long.class).to(2L);
+			bind(String.class).to("three");
+			bind(A.class).to(new A());
+			bind(B.class).to(new B());
+		}
+	}
+
+	interface Marker {
+	}
+
+	static class A implements Marker {
+	}
+
+	static class B extends A {
+	}
+
+	private final Injector context = Bootstrap.injector(
+			TestUpperBoundResolutionModule.class);
+
+	@Test
+	void upperBoundArrayContainsAllSubtypes() {
+		Number[] actual = (Number[]) context.resolve(
+				raw(Number[].class).asUpperBound());
+		assertEquals(new HashSet<>(Arrays.asList(1, 2L)),
+				new HashSet<>(Arrays.asList(actual)));
+	}
+
+	@Test
+	void upperBoundArrayForInterfaceContainsAllImplementations() {
+		Marker[] actual = (Marker[]) context.resolve(
+				raw(Marker[].class).asUpperBound());
+		assertEquals(2, actual.length);
+		assertEquals(new HashSet<>(Arrays.asList(A.class, B.class)),
+				new HashSet<>(Arrays.asList(actual[0].getClass(), actual[1].getClass())));
+	}
+
+	@Test
+	void upperBoundResourcesContainAllSubtypes() {
+		Resource<? extends Number>[] actual = context.resolve(
+				resourcesTypeOf(raw(Number.class).asUpperBound()));
+		assertEquals(2, actual.length);
+	}
+}